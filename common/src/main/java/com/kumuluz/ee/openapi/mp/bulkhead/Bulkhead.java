@@ -0,0 +1,231 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.bulkhead;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of requests processed concurrently by an endpoint. Requests over the limit are placed in a bounded
+ * queue and are rejected immediately when the queue is full, so that endpoints serving documentation can not occupy all
+ * server threads. Queued requests do not block a thread: they are admitted by a callback once a permit is released,
+ * e.g. by dispatching a suspended asynchronous request.
+ *
+ * @since 2.0.0
+ */
+public class Bulkhead {
+
+    private static final Map<String, Bulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final long queueTimeout;
+
+    private final Deque<Runnable> queue = new ArrayDeque<>();
+    private int available;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private Bulkhead(String name, int maxConcurrentRequests, int maxQueuedRequests, long queueTimeout) {
+        this.name = name;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueuedRequests = maxQueuedRequests;
+        this.queueTimeout = queueTimeout;
+        this.available = maxConcurrentRequests;
+    }
+
+    /**
+     * Returns the bulkhead registered under the given name, creating and registering it if no bulkhead with the given
+     * limits is registered under that name yet. All endpoints using the same name and limits share the same bulkhead
+     * and statistics. A bulkhead registered with different limits, e.g. before the configuration changed, is replaced;
+     * requests it has already admitted release their permits to it.
+     *
+     * @param name                  name of the bulkhead
+     * @param maxConcurrentRequests maximum number of requests processed at the same time
+     * @param maxQueuedRequests     maximum number of requests waiting for processing
+     * @param queueTimeout          maximum time in milliseconds a request waits for processing, {@code 0} disables
+     *                              the queue
+     * @return registered bulkhead
+     */
+    public static Bulkhead create(String name, int maxConcurrentRequests, int maxQueuedRequests, long queueTimeout) {
+        if (maxConcurrentRequests < 0 || maxQueuedRequests < 0 || queueTimeout < 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + " limits must not be negative.");
+        }
+
+        return BULKHEADS.compute(name, (n, registered) ->
+                (registered != null && registered.hasLimits(maxConcurrentRequests, maxQueuedRequests, queueTimeout)) ?
+                        registered : new Bulkhead(n, maxConcurrentRequests, maxQueuedRequests, queueTimeout));
+    }
+
+    /**
+     * Returns the bulkhead registered under the given name, e.g. to read its statistics.
+     *
+     * @param name name of the bulkhead
+     * @return registered bulkhead, if any
+     */
+    public static Optional<Bulkhead> get(String name) {
+        return Optional.ofNullable(BULKHEADS.get(name));
+    }
+
+    /**
+     * Acquires a permit to process a request if one is available, without waiting. Every successful call must be
+     * followed by a call to {@link #release()}.
+     *
+     * @return true if the request can be processed
+     */
+    public synchronized boolean tryAcquire() {
+        if (available > 0) {
+            available--;
+            accepted.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Places a request in the queue. When a permit is released, it is handed over to the oldest queued request by
+     * running its admission callback on the releasing thread. The admitted request must call {@link #release()} once
+     * processed. Requests which are not admitted within {@link #getQueueTimeout()} should be removed with
+     * {@link #cancel(Runnable)}.
+     *
+     * @param admission called with the permit acquired, should only schedule processing of the request
+     * @return true if the request was queued (or admitted immediately), false if it was rejected
+     */
+    public boolean enqueue(Runnable admission) {
+        synchronized (this) {
+            if (available == 0) {
+                if (queue.size() >= maxQueuedRequests || queueTimeout == 0) {
+                    rejected.increment();
+                    return false;
+                }
+
+                queue.add(admission);
+                queued.increment();
+                return true;
+            }
+
+            // permit was released in the meantime
+            available--;
+            accepted.increment();
+        }
+
+        admission.run();
+        return true;
+    }
+
+    /**
+     * Removes a request from the queue, e.g. when it timed out.
+     *
+     * @param admission callback of the queued request
+     * @return true if the request was removed and is rejected, false if it has already been admitted
+     */
+    public synchronized boolean cancel(Runnable admission) {
+        if (queue.remove(admission)) {
+            rejected.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    public void release() {
+        Runnable next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                available++;
+                return;
+            }
+
+            accepted.increment();
+        }
+
+        // permit is handed over to the queued request
+        next.run();
+    }
+
+    private boolean hasLimits(int maxConcurrentRequests, int maxQueuedRequests, long queueTimeout) {
+        return this.maxConcurrentRequests == maxConcurrentRequests && this.maxQueuedRequests == maxQueuedRequests &&
+                this.queueTimeout == queueTimeout;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * @return maximum time in milliseconds a request waits in the queue
+     */
+    public long getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    /**
+     * @return number of requests currently being processed
+     */
+    public synchronized int getConcurrentRequests() {
+        return maxConcurrentRequests - available;
+    }
+
+    /**
+     * @return number of requests currently waiting for processing
+     */
+    public synchronized int getQueuedRequests() {
+        return queue.size();
+    }
+
+    /**
+     * @return total number of requests that were processed
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return total number of requests that had to wait in the queue
+     */
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    /**
+     * @return total number of requests that were rejected
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
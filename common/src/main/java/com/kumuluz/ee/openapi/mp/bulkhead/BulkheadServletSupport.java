@@ -0,0 +1,153 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.bulkhead;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Applies a {@link Bulkhead} to the requests of a servlet. Requests over the limit are suspended until the bulkhead
+ * admits them, without holding the container thread, and are rejected with {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header when the queue is full or when they are not admitted within the queue timeout. Requests
+ * which do not support asynchronous processing are rejected immediately.
+ *
+ * @since 2.0.0
+ */
+public class BulkheadServletSupport {
+
+    private final Bulkhead bulkhead;
+    private final int retryAfter;
+
+    // set on requests which were queued by the bulkhead and were dispatched with an acquired permit
+    private final String admittedAttribute;
+
+    /**
+     * @param bulkhead   bulkhead limiting the requests
+     * @param retryAfter value of the {@code Retry-After} header of rejected requests, in seconds
+     */
+    public BulkheadServletSupport(Bulkhead bulkhead, int retryAfter) {
+        this.bulkhead = bulkhead;
+        this.retryAfter = retryAfter;
+        this.admittedAttribute = BulkheadServletSupport.class.getName() + "." + bulkhead.getName() + ".admitted";
+    }
+
+    /**
+     * Handles the request with a permit of the bulkhead, queues it or rejects it. The permit is released when the
+     * handler returns, asynchronous processing started by the handler is not limited.
+     *
+     * @param req     request
+     * @param resp    response
+     * @param handler processing of the request, usually the {@code service} method of the servlet
+     * @throws ServletException if thrown by the handler
+     * @throws IOException      if thrown by the handler
+     */
+    public void service(HttpServletRequest req, HttpServletResponse resp, RequestHandler handler)
+            throws ServletException, IOException {
+        if (req.getAttribute(admittedAttribute) != null) {
+            req.removeAttribute(admittedAttribute);
+        } else if (!bulkhead.tryAcquire()) {
+            if (req.isAsyncSupported()) {
+                enqueue(req);
+            } else {
+                reject(resp, retryAfter);
+            }
+            return;
+        }
+
+        try {
+            handler.handle(req, resp);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Responds with {@code 503 Service Unavailable} and a {@code Retry-After} header.
+     *
+     * @param resp       response
+     * @param retryAfter value of the {@code Retry-After} header, in seconds
+     */
+    public static void reject(HttpServletResponse resp, int retryAfter) {
+        resp.setHeader("Retry-After", String.valueOf(retryAfter));
+        resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    private void enqueue(HttpServletRequest req) {
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(bulkhead.getQueueTimeout());
+
+        Runnable admission = () -> {
+            try {
+                req.setAttribute(admittedAttribute, Boolean.TRUE);
+                asyncContext.dispatch();
+            } catch (IllegalStateException e) {
+                // request has already been completed, e.g. the client disconnected
+                bulkhead.release();
+            }
+        };
+
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                if (bulkhead.cancel(admission)) {
+                    reject((HttpServletResponse) event.getAsyncContext().getResponse(), retryAfter);
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                bulkhead.cancel(admission);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        if (!bulkhead.enqueue(admission)) {
+            reject((HttpServletResponse) asyncContext.getResponse(), retryAfter);
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * Processing of a request admitted by the bulkhead.
+     */
+    @FunctionalInterface
+    public interface RequestHandler {
+
+        void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException;
+    }
+}
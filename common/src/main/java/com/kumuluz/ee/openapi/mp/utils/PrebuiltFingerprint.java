@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Fingerprint of the inputs of the OpenAPI document generated at build time. The fingerprint covers the compiled
+ * classes, the static OpenAPI files and the configuration files of the application (paths, sizes and CRC-32
+ * checksums), so that a document which no longer matches the application (e.g. classes recompiled or configuration
+ * changed without running the OpenAPI Maven plugin) can be detected at startup without scanning the application. The
+ * same fingerprint is computed from a directory, when the application runs exploded, and from a JAR, where sizes and
+ * checksums are read from the JAR directory. Scanned libraries are fingerprinted separately, one marker property per
+ * library JAR.
+ *
+ * @since 2.0.0
+ */
+public class PrebuiltFingerprint {
+
+    /**
+     * Name of the marker file written next to the generated document, containing the fingerprint.
+     */
+    public static final String MARKER_FILE = "openapi.properties";
+
+    public static final String FINGERPRINT_PROPERTY = "fingerprint";
+
+    /**
+     * Prefix of the marker properties containing the fingerprints of the scanned libraries, followed by the file name
+     * of the library JAR.
+     */
+    public static final String LIBRARY_PROPERTY_PREFIX = "library.";
+
+    private static final List<String> STATIC_FILES = Arrays.asList("META-INF/openapi.yaml", "META-INF/openapi.yml",
+            "META-INF/openapi.json");
+
+    // KumuluzEE configuration files, including profiles, and MicroProfile Config properties
+    private static final Pattern CONFIG_FILES = Pattern.compile(
+            "config(-[^/]+)?\\.(yml|yaml|properties)|META-INF/microprofile-config\\.properties");
+
+    private PrebuiltFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of the classes directory.
+     *
+     * @param root classes directory
+     * @return fingerprint
+     * @throws IOException if the directory could not be read
+     */
+    public static String compute(Path root) throws IOException {
+        List<String> entries = new ArrayList<>();
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            String path = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            if (isInput(path)) {
+                CRC32 crc = new CRC32();
+                crc.update(Files.readAllBytes(file));
+                entries.add(entry(path, Files.size(file), crc.getValue()));
+            }
+        }
+
+        return digest(entries);
+    }
+
+    /**
+     * Computes the fingerprint of the classes packaged in a JAR, either the application or a scanned library.
+     *
+     * @param jarFile JAR containing the classes
+     * @param prefix  location of the classes in the JAR (e.g. {@code classes/}), empty if the classes are in the root
+     * @return fingerprint
+     */
+    public static String compute(JarFile jarFile, String prefix) {
+        List<String> entries = new ArrayList<>();
+
+        Enumeration<JarEntry> jarEntries = jarFile.entries();
+        while (jarEntries.hasMoreElements()) {
+            JarEntry jarEntry = jarEntries.nextElement();
+            if (jarEntry.isDirectory() || !jarEntry.getName().startsWith(prefix)) {
+                continue;
+            }
+
+            String path = jarEntry.getName().substring(prefix.length());
+            if (isInput(path)) {
+                entries.add(entry(path, jarEntry.getSize(), jarEntry.getCrc()));
+            }
+        }
+
+        return digest(entries);
+    }
+
+    /**
+     * Reads the marker file.
+     *
+     * @param marker content of the marker file
+     * @return fingerprint of the application and fingerprints of the scanned libraries
+     * @throws IOException if the marker could not be read
+     */
+    public static Properties read(InputStream marker) throws IOException {
+        Properties properties = new Properties();
+        properties.load(marker);
+        return properties;
+    }
+
+    /**
+     * Writes the marker file with the given fingerprints.
+     *
+     * @param marker      location of the marker file
+     * @param fingerprint fingerprint of the application
+     * @param libraries   fingerprints of the scanned libraries by JAR file name
+     * @throws IOException if the marker could not be written
+     */
+    public static void write(Path marker, String fingerprint, Map<String, String> libraries) throws IOException {
+        StringBuilder content = new StringBuilder()
+                .append("# OpenAPI document generated by the KumuluzEE OpenAPI MP Maven plugin\n")
+                .append(FINGERPRINT_PROPERTY).append("=").append(fingerprint).append("\n");
+        // sorted, so that the marker does not change between builds of the same inputs
+        new TreeMap<>(libraries).forEach((name, library) -> content.append(LIBRARY_PROPERTY_PREFIX).append(name)
+                .append("=").append(library).append("\n"));
+
+        Files.write(marker, content.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static boolean isInput(String path) {
+        return path.endsWith(".class") || STATIC_FILES.contains(path) || CONFIG_FILES.matcher(path).matches();
+    }
+
+    private static String entry(String path, long size, long crc) {
+        return path + ":" + size + ":" + Long.toHexString(crc);
+    }
+
+    private static String digest(List<String> entries) {
+        Collections.sort(entries);
+
+        MessageDigest digest = DigestUtils.sha256();
+        for (String entry : entries) {
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+
+        return DigestUtils.toHex(digest.digest());
+    }
+}
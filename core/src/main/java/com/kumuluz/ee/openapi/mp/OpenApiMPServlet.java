@@ -20,18 +20,37 @@
  */
 package com.kumuluz.ee.openapi.mp;
 
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.openapi.mp.async.AsyncSpecWriter;
+import com.kumuluz.ee.openapi.mp.bulkhead.Bulkhead;
+import com.kumuluz.ee.openapi.mp.bulkhead.BulkheadServletSupport;
+import com.kumuluz.ee.openapi.mp.cache.ContentEncoding;
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentation;
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentationCache;
+import com.kumuluz.ee.openapi.mp.generation.BackgroundGeneration;
+import com.kumuluz.ee.openapi.mp.prebuilt.MappedSpecRepresentation;
+import com.kumuluz.ee.openapi.mp.prebuilt.PrebuiltSpec;
+import com.kumuluz.ee.openapi.mp.subset.SpecSubset;
+import com.kumuluz.ee.openapi.mp.subset.SubsetExtractor;
+import com.kumuluz.ee.openapi.mp.util.ConditionalRequestUtil;
+import com.kumuluz.ee.openapi.mp.util.ContentEncodingUtil;
 import com.kumuluz.ee.openapi.mp.util.MediaTypeUtil;
+import com.kumuluz.ee.openapi.mp.util.SerializationUtil;
 import io.smallrye.openapi.api.OpenApiDocument;
-import io.smallrye.openapi.runtime.io.Format;
-import io.smallrye.openapi.runtime.io.OpenApiSerializer;
+import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 /**
  * Servlet for serving the OpenAPI file.
@@ -41,44 +60,238 @@ import java.nio.charset.StandardCharsets;
  */
 public class OpenApiMPServlet extends HttpServlet {
 
+    private boolean cacheEnabled;
+    private boolean asyncEnabled;
+    private long asyncTimeout;
+    private int asyncChunkSize;
+    private boolean compact;
+    private BulkheadServletSupport bulkhead;
+    private long generationWaitTimeout;
+    private int generationRetryAfter;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        cacheEnabled = SpecRepresentationCache.isEnabled();
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        asyncEnabled = isAsyncEnabled();
+        asyncTimeout = configurationUtil.getLong("kumuluzee.openapi-mp.servlet.async.timeout").orElse(30000L);
+        asyncChunkSize = configurationUtil.getInteger("kumuluzee.openapi-mp.servlet.async.chunk-size").orElse(65536);
+        compact = configurationUtil.getBoolean("kumuluzee.openapi-mp.servlet.compact").orElse(false);
+
+        if (isBulkheadEnabled()) {
+            bulkhead = new BulkheadServletSupport(Bulkhead.create("openapi",
+                    configurationUtil.getInteger("kumuluzee.openapi-mp.servlet.bulkhead.max-concurrent-requests")
+                            .orElse(4),
+                    configurationUtil.getInteger("kumuluzee.openapi-mp.servlet.bulkhead.max-queued-requests")
+                            .orElse(8),
+                    configurationUtil.getLong("kumuluzee.openapi-mp.servlet.bulkhead.queue-timeout")
+                            .orElse(1000L)),
+                    configurationUtil.getInteger("kumuluzee.openapi-mp.servlet.bulkhead.retry-after").orElse(1));
+        }
+
+        generationWaitTimeout = configurationUtil.getLong("kumuluzee.openapi-mp.generation.wait-timeout").orElse(0L);
+        generationRetryAfter = configurationUtil.getInteger("kumuluzee.openapi-mp.generation.retry-after").orElse(1);
+    }
+
+    public static boolean isAsyncEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.servlet.async.enabled").orElse(false);
+    }
+
+    public static boolean isBulkheadEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.servlet.bulkhead.enabled")
+                .orElse(false);
+    }
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        // waiting for the document does not hold a permit of the bulkhead
+        if (!BackgroundGeneration.getInstance().await(generationWaitTimeout)) {
+            // document is still being generated in the background
+            BulkheadServletSupport.reject(resp, generationRetryAfter);
+            return;
+        }
+
+        if (bulkhead == null) {
+            super.service(req, resp);
+        } else {
+            // asynchronous writes continue after the permit is released, the bulkhead only limits occupied threads
+            bulkhead.service(req, resp, super::service);
+        }
+    }
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        SpecFormat format = getFormat(req);
+        // tag and pathPrefix query parameters select a subset of the document
+        SpecSubset subset = SpecSubset.of(req.getParameter("tag"), req.getParameter("pathPrefix"));
 
-        PrintWriter writer = resp.getWriter();
-        if (OpenApiDocument.INSTANCE.isSet()) {
-
-            Format format = null;
-
-            // format query parameter can override format
-            String queryParameterFormat = req.getParameter("format");
-            if (queryParameterFormat != null) {
-                if (queryParameterFormat.equalsIgnoreCase("json")) {
-                    format = Format.JSON;
-                } else if (queryParameterFormat.equalsIgnoreCase("yml") ||
-                        queryParameterFormat.equalsIgnoreCase("yaml")) {
-                    format = Format.YAML;
-                }
+        PrebuiltSpec prebuiltSpec = PrebuiltSpec.getInstance();
+        if (prebuiltSpec != null) {
+            MappedSpecRepresentation representation = (subset == null) ? prebuiltSpec.get(format) : null;
+            if (representation != null) {
+                resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                sendMapped(req, resp, representation);
+                return;
             }
 
-            if (format == null) {
-                // respect Accept header
-                format = MediaTypeUtil.parseMediaType(req.getHeader("Accept"));
-            }
+            // requested representation was not generated at build time, build it from the generated document
+            prebuiltSpec.initializeDocument();
+        }
+
+        if (!OpenApiDocument.INSTANCE.isSet()) {
+            sendError(resp);
+            return;
+        }
+
+        if (!format.isBinary()) {
+            resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+
+        if (cacheEnabled) {
+            sendCached(req, resp, format, subset);
+        } else {
+            sendSerialized(resp, format, subset);
+        }
+    }
+
+    private void sendCached(HttpServletRequest req, HttpServletResponse resp, SpecFormat format, SpecSubset subset)
+            throws IOException {
+        SpecRepresentationCache cache = SpecRepresentationCache.getInstance();
+        SpecRepresentation representation;
+        if (subset == null) {
+            Map<ContentEncoding, SpecRepresentation> representations = cache.get(format);
+            representation = representations.get(ContentEncodingUtil.negotiate(req.getHeader("Accept-Encoding"),
+                    representations.keySet()));
+        } else {
+            // only the negotiated representation of a subset is built
+            representation = cache.get(subset, format, ContentEncodingUtil.negotiate(
+                    req.getHeader("Accept-Encoding"), cache.getSubsetEncodings()));
+        }
+        ContentEncoding encoding = representation.getContentEncoding();
+
+        resp.setHeader("ETag", representation.getEntityTag());
+        resp.setDateHeader("Last-Modified", representation.getLastModified());
+        resp.setHeader("Vary", "Accept, Accept-Encoding");
 
-            if (format == null) {
-                // by default use yaml
-                format = Format.YAML;
+        if (ConditionalRequestUtil.isNotModified(req, representation.getEntityTag(),
+                representation.getLastModified())) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(representation.getMimeType());
+        if (encoding != ContentEncoding.IDENTITY) {
+            resp.setHeader("Content-Encoding", encoding.getToken());
+        }
+        resp.setContentLength(representation.getContentLength());
+
+        if (asyncEnabled && req.isAsyncSupported()) {
+            // write in chunks without holding a container thread while the client reads
+            AsyncContext asyncContext = req.startAsync();
+            asyncContext.setTimeout(asyncTimeout);
+
+            ServletOutputStream outputStream = resp.getOutputStream();
+            AsyncSpecWriter writer = new AsyncSpecWriter(asyncContext, outputStream, representation,
+                    asyncChunkSize);
+            asyncContext.addListener(writer);
+            outputStream.setWriteListener(writer);
+        } else {
+            ServletOutputStream outputStream = resp.getOutputStream();
+            if (outputStream instanceof HttpOutput) {
+                // Jetty writes the buffer to the connection, off-heap content is not copied to the heap
+                ((HttpOutput) outputStream).sendContent(representation.getContent());
+            } else {
+                representation.writeTo(outputStream);
             }
+        }
+    }
+
+    private void sendMapped(HttpServletRequest req, HttpServletResponse resp, MappedSpecRepresentation representation)
+            throws IOException {
+        resp.setHeader("ETag", representation.getEntityTag());
+        resp.setDateHeader("Last-Modified", representation.getLastModified());
+        resp.setHeader("Vary", "Accept");
 
-            resp.setStatus(HttpServletResponse.SC_OK);
-            resp.setContentType(format.getMimeType());
-            String output = OpenApiSerializer.serialize(OpenApiDocument.INSTANCE.get(), format);
-            writer.println(output);
+        if (ConditionalRequestUtil.isNotModified(req, representation.getEntityTag(),
+                representation.getLastModified())) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(representation.getMimeType());
+        resp.setContentLength(representation.getContentLength());
+
+        ServletOutputStream outputStream = resp.getOutputStream();
+        if (outputStream instanceof HttpOutput) {
+            // Jetty writes the mapped buffer to the connection without copying it to the heap
+            ((HttpOutput) outputStream).sendContent(representation.getContent());
         } else {
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            writer.println("Something went wrong generating the OpenAPI document. Check application logs for more information.");
+            Channels.newChannel(outputStream).write(representation.getContent());
+        }
+    }
+
+    private void sendSerialized(HttpServletResponse resp, SpecFormat format, SpecSubset subset) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(format.getMimeType());
+
+        OpenAPI model = OpenApiDocument.INSTANCE.get();
+
+        // stream straight to the response, the serialized document is never materialized as a whole
+        ServletOutputStream outputStream = resp.getOutputStream();
+        SerializationUtil.write((subset == null) ? model : SubsetExtractor.extract(model, subset), format,
+                outputStream);
+        outputStream.close();
+    }
+
+    private SpecFormat getFormat(HttpServletRequest req) {
+        SpecFormat format = null;
+
+        // format query parameter can override format
+        String queryParameterFormat = req.getParameter("format");
+        if (queryParameterFormat != null) {
+            if (queryParameterFormat.equalsIgnoreCase("json")) {
+                format = SpecFormat.JSON;
+            } else if (queryParameterFormat.equalsIgnoreCase("yml") ||
+                    queryParameterFormat.equalsIgnoreCase("yaml")) {
+                format = SpecFormat.YAML;
+            } else if (queryParameterFormat.equalsIgnoreCase("cbor")) {
+                format = SpecFormat.CBOR;
+            }
         }
+
+        if (format == null) {
+            // respect Accept header
+            format = MediaTypeUtil.parseMediaType(req.getHeader("Accept"));
+        }
+
+        if (format == null) {
+            // by default use yaml
+            format = SpecFormat.YAML;
+        }
+
+        if (format == SpecFormat.JSON) {
+            // compact query parameter can override configured JSON variant
+            String queryParameterCompact = req.getParameter("compact");
+            boolean useCompact = (queryParameterCompact == null) ? compact :
+                    Boolean.parseBoolean(queryParameterCompact);
+
+            if (useCompact) {
+                format = SpecFormat.JSON_COMPACT;
+            }
+        }
+
+        return format;
+    }
+
+    private void sendError(HttpServletResponse resp) throws IOException {
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter writer = resp.getWriter();
+        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        writer.println("Something went wrong generating the OpenAPI document. Check application logs for more information.");
         writer.close();
     }
 }
@@ -28,30 +28,58 @@ import com.kumuluz.ee.common.dependencies.EeExtensionDef;
 import com.kumuluz.ee.common.exceptions.KumuluzServerException;
 import com.kumuluz.ee.common.utils.ResourceUtils;
 import com.kumuluz.ee.common.wrapper.KumuluzServerWrapper;
+import com.kumuluz.ee.configuration.ConfigurationListener;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.jetty.JettyServletServer;
+import com.kumuluz.ee.openapi.mp.async.AsyncSupportConfigurer;
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentationCache;
+import com.kumuluz.ee.openapi.mp.generation.BackgroundGeneration;
+import com.kumuluz.ee.openapi.mp.generation.BackgroundGenerationStarter;
+import com.kumuluz.ee.openapi.mp.handler.SpecHandlerInstaller;
+import com.kumuluz.ee.openapi.mp.index.IndexCache;
+import com.kumuluz.ee.openapi.mp.index.PackagedIndex;
+import com.kumuluz.ee.openapi.mp.index.ParallelIndexer;
+import com.kumuluz.ee.openapi.mp.index.ScopedIndexView;
+import com.kumuluz.ee.openapi.mp.index.TargetedScan;
+import com.kumuluz.ee.openapi.mp.prebuilt.PrebuiltSpec;
+import com.kumuluz.ee.openapi.mp.prewarm.SpecPrewarmer;
+import com.kumuluz.ee.openapi.mp.spi.IndexProvider;
 import com.kumuluz.ee.openapi.mp.spi.OASFilterProvider;
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
 import com.kumuluz.ee.openapi.mp.utils.JarUtils;
 import io.github.classgraph.ClassGraph;
 import io.github.classgraph.ClassInfo;
-import io.github.classgraph.ClassInfoList;
 import io.github.classgraph.ScanResult;
 import io.smallrye.openapi.api.OpenApiConfig;
 import io.smallrye.openapi.api.OpenApiConfigImpl;
 import io.smallrye.openapi.api.OpenApiDocument;
+import io.smallrye.openapi.api.util.FilterUtil;
+import io.smallrye.openapi.api.util.MergeUtil;
 import io.smallrye.openapi.runtime.OpenApiProcessor;
 import io.smallrye.openapi.runtime.OpenApiStaticFile;
+import io.smallrye.openapi.runtime.io.CurrentScannerInfo;
 import io.smallrye.openapi.runtime.io.Format;
+import io.smallrye.openapi.runtime.scanner.SchemaRegistry;
+import io.smallrye.openapi.runtime.scanner.processor.JavaSecurityProcessor;
 import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.openapi.OASFilter;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.jboss.jandex.CompositeIndex;
 import org.jboss.jandex.Index;
-import org.jboss.jandex.Indexer;
+import org.jboss.jandex.IndexView;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -69,6 +97,8 @@ public class OpenApiMpExtension implements Extension {
 
     private static final Logger LOG = Logger.getLogger(OpenApiMpExtension.class.getName());
 
+    private static final String JERSEY_WADL_PACKAGE = "org.glassfish.jersey.server.wadl";
+
     @Override
     public void load() {
         try {
@@ -103,43 +133,95 @@ public class OpenApiMpExtension implements Extension {
         }
     }
 
-    private Index getIndex(OpenApiConfig config) {
+    private IndexView getSharedIndex(OpenApiConfig config) {
+        if (!ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.shared-index.enabled")
+                .orElse(false)) {
+            return null;
+        }
+
+        for (IndexProvider indexProvider : ServiceLoader.load(IndexProvider.class)) {
+            IndexView index = indexProvider.getIndex();
+            if (index != null) {
+                LOG.info("Using annotation index provided by " + indexProvider.getClass().getName() + ".");
+                // shared index is restricted to the classes which would be scanned, include/exclude configuration is
+                // applied over it
+                IndexView scopedIndex = scope(index, config, isOptimized() ? getScanJars() : null);
+                StartupReport.getInstance().count(StartupReport.COUNT_CLASSES_INDEXED,
+                        scopedIndex.getKnownClasses().size());
+                return scopedIndex;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Restricts the index to the classes which scanning would index, excluding the same Jersey classes as scanning.
+     */
+    private IndexView scope(IndexView index, OpenApiConfig config, List<String> scanJars) {
+        return new ScopedIndexView(index, config, getClass().getClassLoader(),
+                Collections.singletonList(JERSEY_WADL_PACKAGE),
+                Collections.singletonList(ResourceConfig.class.getName()),
+                scanJars);
+    }
+
+    private boolean isOptimized() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.optimize").orElse(true);
+    }
+
+    /**
+     * Returns the jars scanned when scanning is optimized: the main jar when running in a jar and the jars from the
+     * {@code kumuluzee.dev.scan-libraries} configuration. Classpath directories are always scanned.
+     */
+    private List<String> getScanJars() {
+        List<String> scanJars = new LinkedList<>();
+
+        // if in jar add main jar name
+        if (ResourceUtils.isRunningInJar()) {
+            try {
+
+                Class.forName("com.kumuluz.ee.loader.EeClassLoader");
+                scanJars.add(JarUtils.getMainJarName());
+
+            } catch (ClassNotFoundException e) {
+                // this should not fail since we check if we are running in jar beforehand
+                // if you get this warning you are probably doing something weird with packaging
+                LOG.warning("Could not load EeClassLoader, OpenAPI specification may not work as expected. " +
+                        "Are you running in UberJAR created by KumuluzEE Maven plugin?");
+            }
+        }
+
+        // add jars from kumuluzee.dev.scan-libraries configuration
+        List<String> scanLibraries = EeConfig.getInstance().getDev().getScanLibraries();
+        if (scanLibraries != null) {
+            scanJars.addAll(scanLibraries);
+        }
+
+        return scanJars;
+    }
+
+    private IndexView getIndex(OpenApiConfig config) {
 
         ClassGraph classGraph = new ClassGraph().enableClassInfo();
 
+        boolean targeted = TargetedScan.isEnabled();
+        if (targeted) {
+            TargetedScan.configure(classGraph);
+        }
+
         if (ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.debug").orElse(false)) {
             classGraph = classGraph.verbose();
         }
 
         // disable Jersey wadl
-        classGraph.rejectPackages("org.glassfish.jersey.server.wadl");
+        classGraph.rejectPackages(JERSEY_WADL_PACKAGE);
         // disable Jersey ResourceConfig
         classGraph.rejectClasses(ResourceConfig.class.getName());
 
-        if (ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.optimize").orElse(true)) {
-            List<String> scanJars = new LinkedList<>(); // which jars should ClassGraph scan
-
-            // if in jar add main jar name
-            if (ResourceUtils.isRunningInJar()) {
-                try {
-
-                    Class.forName("com.kumuluz.ee.loader.EeClassLoader");
-                    scanJars.add(JarUtils.getMainJarName());
-
-                } catch (ClassNotFoundException e) {
-                    // this should not fail since we check if we are running in jar beforehand
-                    // if you get this warning you are probably doing something weird with packaging
-                    LOG.warning("Could not load EeClassLoader, OpenAPI specification may not work as expected. " +
-                            "Are you running in UberJAR created by KumuluzEE Maven plugin?");
-                }
-            }
-
-            // add jars from kumuluzee.dev.scan-libraries configuration
-            List<String> scanLibraries = EeConfig.getInstance().getDev().getScanLibraries();
-            if (scanLibraries != null) {
-                scanJars.addAll(scanLibraries);
-            }
+        boolean optimize = isOptimized();
+        List<String> scanJars = optimize ? getScanJars() : new LinkedList<>(); // which jars should ClassGraph scan
 
+        if (optimize) {
             if (scanJars.isEmpty()) {
                 // running exploded with no scan-libraries defined in config
                 classGraph.disableJarScanning();
@@ -179,41 +261,101 @@ public class OpenApiMpExtension implements Extension {
             classGraph.rejectPackages(p);
         }
 
-        ScanResult scanResult = classGraph.scan();
-
-        ClassInfoList classInfoList = scanResult.getAllClasses();
-        Indexer indexer = new Indexer();
-        ClassLoader classLoader = getClass().getClassLoader();
+        StartupReport report = StartupReport.getInstance();
+
+        if (optimize && PackagedIndex.isEnabled()) {
+            List<File> classpath = classGraph.getClasspathFiles();
+            IndexView packagedIndex = report.timeIfPresent(StartupReport.PHASE_INDEX_LOAD,
+                    () -> PackagedIndex.load(getClass().getClassLoader(), scanJars, classpath));
+            if (packagedIndex != null) {
+                report.count(StartupReport.COUNT_CLASSES_INDEXED, packagedIndex.getKnownClasses().size());
+                // packaged index only contains the scanned jars, Jersey and include/exclude configuration are
+                // applied over it
+                return scope(packagedIndex, config, null);
+            }
+        }
 
-        for (ClassInfo classInfo : classInfoList) {
+        IndexCache indexCache = null;
+        if (IndexCache.isEnabled()) {
             try {
-                indexer.index(classLoader.getResourceAsStream(classInfo.getName().replaceAll("\\.", "/") + ".class"));
+                indexCache = IndexCache.create(classGraph.getClasspathFiles(), Arrays.asList(
+                        Boolean.toString(optimize),
+                        Boolean.toString(targeted),
+                        String.join(",", scanJars),
+                        String.valueOf(config.scanClasses()),
+                        String.valueOf(config.scanPackages()),
+                        String.valueOf(config.scanExcludeClasses()),
+                        String.valueOf(config.scanExcludePackages())));
+
+                if (indexCache != null) {
+                    IndexView cachedIndex = report.timeIfPresent(StartupReport.PHASE_INDEX_LOAD, indexCache::load);
+                    if (cachedIndex != null) {
+                        report.count(StartupReport.COUNT_CLASSES_INDEXED, cachedIndex.getKnownClasses().size());
+                        return cachedIndex;
+                    }
+                }
             } catch (IOException e) {
-                LOG.warning("Skipped scanning class: " + classInfo.getName());
+                LOG.warning("Could not compute annotation index fingerprint, index will not be cached: " +
+                        e.getMessage());
             }
         }
+
+        int parallelism = ParallelIndexer.getParallelism();
+
+        ClassGraph scanner = classGraph;
+        ScanResult scanResult = report.time(StartupReport.PHASE_SCAN, () -> scanner.scan(parallelism));
+        List<ClassInfo> classes = scanResult.getAllClasses();
+        report.count(StartupReport.COUNT_JARS_SCANNED, scanResult.getClasspathFiles().stream()
+                .filter(File::isFile)
+                .count());
+        report.count(StartupReport.COUNT_CLASSES_SCANNED, classes.size());
+        if (targeted) {
+            List<ClassInfo> selectedClasses = TargetedScan.select(scanResult);
+            LOG.info("Targeted scanning selected " + selectedClasses.size() + " of " + classes.size() + " classes.");
+            classes = selectedClasses;
+        }
+
+        List<ClassInfo> indexedClasses = classes;
+        List<Index> indexes = report.time(StartupReport.PHASE_INDEX,
+                () -> ParallelIndexer.index(indexedClasses, parallelism));
+        report.count(StartupReport.COUNT_CLASSES_INDEXED, indexedClasses.size());
         scanResult.close();
+        report.trackRelease(StartupReport.ARTIFACT_SCAN_RESULT, scanResult);
+
+        if (indexCache != null) {
+            indexCache.store(indexes);
+        }
 
-        return indexer.complete();
+        return CompositeIndex.create(new ArrayList<>(indexes));
     }
 
     @Override
     public void init(KumuluzServerWrapper kumuluzServerWrapper, EeConfig eeConfig) {
-        OpenApiConfig config = new OpenApiConfigImpl(ConfigProvider.getConfig());
         ClassLoader classLoader = getClass().getClassLoader();
 
-        OpenApiDocument openApiDocument = OpenApiDocument.INSTANCE;
-        openApiDocument.config(config);
-        openApiDocument.modelFromReader(OpenApiProcessor.modelFromReader(config, classLoader));
-        openApiDocument.modelFromStaticFile(OpenApiProcessor.modelFromStaticFile(getStaticFiles()));
-        if (!config.scanDisable()) {
-            openApiDocument.modelFromAnnotations(OpenApiProcessor.modelFromAnnotations(config, getIndex(config)));
+        boolean prebuilt = false;
+        if (PrebuiltSpec.isEnabled()) {
+            try {
+                prebuilt = PrebuiltSpec.load(classLoader) != null;
+            } catch (IOException e) {
+                LOG.warning("Could not load OpenAPI document generated at build time, generating the document at " +
+                        "startup: " + e.getMessage());
+            }
         }
-        openApiDocument.filter(OpenApiProcessor.getFilter(config, classLoader));
-        for (OASFilterProvider filterProvider : ServiceLoader.load(OASFilterProvider.class)) {
-            openApiDocument.filter(filterProvider.registerOasFilter());
+
+        boolean background = !prebuilt && BackgroundGeneration.isEnabled();
+        if (background) {
+            // the endpoint is prepared once the document is generated
+            BackgroundGeneration.getInstance().schedule(() -> {
+                initializeDocument(classLoader);
+                prewarm();
+            });
+        } else {
+            BackgroundGeneration.getInstance().skip();
+            if (!prebuilt) {
+                initializeDocument(classLoader);
+            }
         }
-        openApiDocument.initialize();
 
         if (kumuluzServerWrapper.getServer() instanceof JettyServletServer) {
             JettyServletServer server = (JettyServletServer) kumuluzServerWrapper.getServer();
@@ -222,7 +364,136 @@ public class OpenApiMpExtension implements Extension {
             String mapping = ConfigurationUtil.getInstance().get("mp.openapi.servlet.mapping").orElse("/openapi");
 
             server.registerServlet(OpenApiMPServlet.class, mapping);
+
+            // queued bulkhead requests are suspended asynchronously
+            if (OpenApiMPServlet.isAsyncEnabled() || OpenApiMPServlet.isBulkheadEnabled()) {
+                server.registerListener(new AsyncSupportConfigurer());
+            }
+
+            if (ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.servlet.handler.enabled")
+                    .orElse(false)) {
+                // servlet stays registered, the handler serves the mapping before requests reach it
+                server.registerListener(new SpecHandlerInstaller(mapping));
+            }
+
+            if (background) {
+                server.registerListener(new BackgroundGenerationStarter());
+            }
+        } else if (background) {
+            BackgroundGeneration.getInstance().start();
+        }
+
+        if (!background) {
+            prewarm();
+        }
+
+        // serialization is recorded when the endpoint is pre-warmed, possibly in the background
+        SpecPrewarmer.getInstance().whenReady().whenComplete((v, e) -> StartupReport.getInstance().log());
+    }
+
+    private void prewarm() {
+        if (SpecPrewarmer.isEnabled()) {
+            SpecPrewarmer.getInstance().prewarm();
+        } else {
+            SpecPrewarmer.getInstance().skip();
+        }
+    }
+
+    private void initializeDocument(ClassLoader classLoader) {
+        OpenApiConfig config = new OpenApiConfigImpl(ConfigProvider.getConfig());
+
+        StartupReport report = StartupReport.getInstance();
+
+        OpenAPI readerModel = report.time(StartupReport.PHASE_READER,
+                () -> OpenApiProcessor.modelFromReader(config, classLoader));
+        OpenAPI staticFileModel = report.time(StartupReport.PHASE_STATIC_FILE,
+                () -> OpenApiProcessor.modelFromStaticFile(getStaticFiles()));
+        OpenAPI annotationsModel = null;
+        if (!config.scanDisable()) {
+            IndexView sharedIndex = report.timeIfPresent(StartupReport.PHASE_INDEX_LOAD,
+                    () -> getSharedIndex(config));
+            IndexView index;
+            if (sharedIndex != null) {
+                // shared index is owned by its provider, it is not expected to be released
+                index = sharedIndex;
+            } else {
+                index = getIndex(config);
+                report.trackRelease(StartupReport.ARTIFACT_INDEX, index);
+            }
+            try {
+                annotationsModel = report.time(StartupReport.PHASE_ANNOTATIONS,
+                        () -> OpenApiProcessor.modelFromAnnotations(config, index));
+            } finally {
+                releaseScannerState();
+            }
+        }
+
+        // models are merged and filtered in the same order as by OpenApiDocument, which only applies the defaults and
+        // the configuration afterwards, so that the time spent in each filter can be recorded
+        OpenAPI model = MergeUtil.mergeObjects(MergeUtil.mergeObjects(readerModel, staticFileModel), annotationsModel);
+        if (model != null) {
+            for (OASFilter filter : getFilters(config, classLoader)) {
+                OpenAPI unfiltered = model;
+                model = report.time(StartupReport.PHASE_FILTER_PREFIX + filter.getClass().getName(),
+                        () -> FilterUtil.applyFilter(filter, unfiltered));
+            }
+        }
+
+        OpenApiDocument openApiDocument = OpenApiDocument.INSTANCE;
+        openApiDocument.config(config);
+        openApiDocument.modelFromReader(model);
+        report.time(StartupReport.PHASE_INITIALIZE, () -> {
+            openApiDocument.initialize();
+            return null;
+        });
+        report.countDocument(openApiDocument.get());
+
+        if (SpecRepresentationCache.isEnabled()) {
+            SpecRepresentationCache cache = SpecRepresentationCache.getInstance();
+
+            // representations are rebuilt on the next request when settings they depend on change
+            List<String> cacheKeys = Arrays.asList("kumuluzee.openapi-mp.servlet.compression.enabled",
+                    "kumuluzee.openapi-mp.servlet.compression.level");
+            ConfigurationListener cacheListener = (key, value) -> {
+                if (cacheKeys.contains(key)) {
+                    cache.invalidate();
+                }
+            };
+            cacheKeys.forEach(key -> ConfigurationUtil.getInstance().subscribe(key, cacheListener));
+        }
+    }
+
+    /**
+     * Returns the filter configured with {@code mp.openapi.filter} and the filters of the {@link OASFilterProvider}
+     * implementations. As registered by {@link OpenApiDocument#filter(OASFilter)}, only the first filter of each class
+     * is kept and the filters are applied in the order of the map keyed by their class names.
+     */
+    private Collection<OASFilter> getFilters(OpenApiConfig config, ClassLoader classLoader) {
+        Map<String, OASFilter> filters = new HashMap<>();
+
+        OASFilter configFilter = OpenApiProcessor.getFilter(config, classLoader);
+        if (configFilter != null) {
+            filters.putIfAbsent(configFilter.getClass().getName(), configFilter);
         }
+        for (OASFilterProvider filterProvider : ServiceLoader.load(OASFilterProvider.class)) {
+            OASFilter filter = filterProvider.registerOasFilter();
+            if (filter != null) {
+                filters.putIfAbsent(filter.getClass().getName(), filter);
+            }
+        }
+
+        return filters.values();
+    }
+
+    /**
+     * The annotation scanner keeps its state in thread locals, which are not removed when the scan completes. On the
+     * startup thread they would keep the index (and everything reachable from it) in memory for the lifetime of the
+     * application.
+     */
+    private void releaseScannerState() {
+        SchemaRegistry.remove();
+        CurrentScannerInfo.remove();
+        JavaSecurityProcessor.remove();
     }
 
     @Override
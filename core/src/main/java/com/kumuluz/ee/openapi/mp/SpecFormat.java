@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp;
+
+/**
+ * Formats in which the OpenAPI document can be served. In addition to the text formats supported by SmallRye, the
+ * document can be served as JSON without whitespace or as CBOR, a binary encoding of the JSON document which is
+ * smaller and faster to parse.
+ *
+ * @since 2.0.0
+ */
+public enum SpecFormat {
+
+    YAML("application/yaml", false),
+    JSON("application/json", false),
+    JSON_COMPACT("application/json", false),
+    CBOR("application/cbor", true);
+
+    private final String mimeType;
+    private final boolean binary;
+
+    SpecFormat(String mimeType, boolean binary) {
+        this.mimeType = mimeType;
+        this.binary = binary;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * @return true if the format is binary and the representation has no character encoding
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.async;
+
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentation;
+import org.eclipse.jetty.server.HttpOutput;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.util.logging.Logger;
+
+/**
+ * Writes a serialized representation to an asynchronous response in chunks, writing the next chunk only when the
+ * container signals that the output stream is ready. Slow clients therefore do not block a container thread.
+ *
+ * @since 2.0.0
+ */
+public class AsyncSpecWriter implements WriteListener, AsyncListener {
+
+    private static final Logger LOG = Logger.getLogger(AsyncSpecWriter.class.getName());
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+    private final SpecRepresentation representation;
+    private final int chunkSize;
+
+    private int position = 0;
+
+    public AsyncSpecWriter(AsyncContext asyncContext, ServletOutputStream outputStream,
+                           SpecRepresentation representation, int chunkSize) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+        this.representation = representation;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (outputStream.isReady()) {
+            if (position >= representation.getContentLength()) {
+                asyncContext.complete();
+                return;
+            }
+
+            int length = Math.min(chunkSize, representation.getContentLength() - position);
+            if (outputStream instanceof HttpOutput) {
+                ((HttpOutput) outputStream).write(representation.getContent(position, length));
+            } else {
+                representation.writeTo(outputStream, position, length);
+            }
+            position += length;
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        LOG.fine("Could not write the OpenAPI document: " + t.getMessage());
+        asyncContext.complete();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        LOG.fine("Timed out while writing the OpenAPI document, " + position + " of " +
+                representation.getContentLength() + " bytes written.");
+        asyncContext.complete();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+}
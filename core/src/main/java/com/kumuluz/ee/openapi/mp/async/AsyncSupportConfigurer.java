@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.async;
+
+import com.kumuluz.ee.openapi.mp.OpenApiMPServlet;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import java.util.logging.Logger;
+
+/**
+ * Marks {@link OpenApiMPServlet} as supporting asynchronous processing, which is needed for asynchronous delivery and
+ * for queueing requests in the bulkhead. Servlets registered through {@link com.kumuluz.ee.jetty.JettyServletServer}
+ * are not async-enabled so the servlet holder is updated before the servlet is initialized.
+ *
+ * @since 2.0.0
+ */
+public class AsyncSupportConfigurer implements ServletContextListener {
+
+    private static final Logger LOG = Logger.getLogger(AsyncSupportConfigurer.class.getName());
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        ServletContextHandler contextHandler = ServletContextHandler.getServletContextHandler(sce.getServletContext());
+
+        if (contextHandler == null) {
+            LOG.warning("Could not enable asynchronous processing of OpenAPI requests, servlet context handler not " +
+                    "found.");
+            return;
+        }
+
+        for (ServletHolder holder : contextHandler.getServletHandler().getServlets()) {
+            if (OpenApiMPServlet.class.getName().equals(holder.getClassName())) {
+                holder.setAsyncSupported(true);
+            }
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+    }
+}
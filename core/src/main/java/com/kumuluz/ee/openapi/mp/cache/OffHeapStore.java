@@ -0,0 +1,164 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Budget for serialized representations stored in direct (off-heap) buffers. Space is reserved for groups of
+ * representations under an owner key. When the budget is exhausted, least recently used groups which are not pinned are
+ * evicted to make room and their owners are notified, so that they stop referencing the evicted buffers. Direct
+ * buffers are freed by the garbage collector once they are no longer referenced, requests which are still writing an
+ * evicted representation are therefore not affected.
+ *
+ * @since 2.0.0
+ */
+public class OffHeapStore {
+
+    private final long capacity;
+    private final Map<Object, Reservation> reservations = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder evictions = new LongAdder();
+
+    private long used;
+
+    OffHeapStore(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Copies the content to a direct buffer.
+     *
+     * @param content content to copy
+     * @return direct buffer, ready to be read
+     */
+    static ByteBuffer allocate(byte[] content) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+        buffer.put(content);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reserves space under the given owner key, evicting least recently used groups if needed. Eviction callbacks are
+     * run after the reservation, outside of the store lock.
+     *
+     * @param owner   key of the group
+     * @param size    size in bytes
+     * @param pinned  pinned groups are never evicted
+     * @param onEvict called when the group is evicted
+     * @return true if the space was reserved, false if the group does not fit into the budget
+     */
+    boolean reserve(Object owner, long size, boolean pinned, Runnable onEvict) {
+        List<Runnable> evicted = new ArrayList<>();
+        boolean reserved;
+
+        synchronized (this) {
+            release(owner);
+
+            Iterator<Reservation> iterator = reservations.values().iterator();
+            while (used + size > capacity && iterator.hasNext()) {
+                Reservation reservation = iterator.next();
+                if (!reservation.pinned) {
+                    iterator.remove();
+                    used -= reservation.size;
+                    evictions.increment();
+                    evicted.add(reservation.onEvict);
+                }
+            }
+
+            reserved = used + size <= capacity;
+            if (reserved) {
+                reservations.put(owner, new Reservation(size, pinned, onEvict));
+                used += size;
+            }
+        }
+
+        evicted.forEach(Runnable::run);
+        return reserved;
+    }
+
+    /**
+     * Marks the group as recently used.
+     *
+     * @param owner key of the group
+     */
+    synchronized void touch(Object owner) {
+        reservations.get(owner);
+    }
+
+    /**
+     * Releases space reserved under the given owner key, without notifying the owner.
+     *
+     * @param owner key of the group
+     */
+    synchronized void release(Object owner) {
+        Reservation reservation = reservations.remove(owner);
+        if (reservation != null) {
+            used -= reservation.size;
+        }
+    }
+
+    /**
+     * @return budget in bytes
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return bytes currently reserved
+     */
+    public synchronized long getUsed() {
+        return used;
+    }
+
+    /**
+     * @return number of groups currently stored
+     */
+    public synchronized int getEntries() {
+        return reservations.size();
+    }
+
+    /**
+     * @return total number of evicted groups
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class Reservation {
+        private final long size;
+        private final boolean pinned;
+        private final Runnable onEvict;
+
+        Reservation(long size, boolean pinned, Runnable onEvict) {
+            this.size = size;
+            this.pinned = pinned;
+            this.onEvict = onEvict;
+        }
+    }
+}
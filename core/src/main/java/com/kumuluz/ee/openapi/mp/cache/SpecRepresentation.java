@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.cache;
+
+import com.kumuluz.ee.openapi.mp.util.EntityTagUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Serialized representation of the OpenAPI document. Content is immutable and is stored either on the heap or in a
+ * direct buffer ({@link OffHeapStore}). It is only exposed as read-only views.
+ *
+ * @since 2.0.0
+ */
+public final class SpecRepresentation {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final ByteBuffer content;
+    private final String mimeType;
+    private final ContentEncoding contentEncoding;
+    private final String entityTag;
+    private final long lastModified;
+
+    SpecRepresentation(ByteBuffer content, String mimeType, ContentEncoding contentEncoding, long lastModified) {
+        this.content = content;
+        this.mimeType = mimeType;
+        this.contentEncoding = contentEncoding;
+        this.entityTag = EntityTagUtil.computeEntityTag(mimeType, content);
+        this.lastModified = lastModified;
+    }
+
+    public int getContentLength() {
+        return content.remaining();
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public ContentEncoding getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Strong entity tag of this representation, computed from its content and media type.
+     *
+     * @return quoted entity tag
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * Time when the document was generated, truncated to seconds.
+     *
+     * @return milliseconds since epoch
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return true if the content is stored outside of the heap
+     */
+    public boolean isDirect() {
+        return content.isDirect();
+    }
+
+    /**
+     * Returns a read-only view of the content. Every call returns a new view with its own position.
+     *
+     * @return content of the representation
+     */
+    public ByteBuffer getContent() {
+        return content.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a read-only view of a part of the content.
+     *
+     * @param offset start of the part
+     * @param length length of the part
+     * @return part of the content
+     */
+    public ByteBuffer getContent(int offset, int length) {
+        ByteBuffer view = content.asReadOnlyBuffer();
+        view.position(offset);
+        view.limit(offset + length);
+        return view;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        writeTo(outputStream, 0, getContentLength());
+    }
+
+    public void writeTo(OutputStream outputStream, int offset, int length) throws IOException {
+        if (content.hasArray()) {
+            outputStream.write(content.array(), content.arrayOffset() + offset, length);
+            return;
+        }
+
+        // streams only accept arrays, direct content is copied in small parts
+        ByteBuffer view = getContent(offset, length);
+        byte[] buffer = new byte[Math.min(COPY_BUFFER_SIZE, length)];
+        while (view.hasRemaining()) {
+            int part = Math.min(buffer.length, view.remaining());
+            view.get(buffer, 0, part);
+            outputStream.write(buffer, 0, part);
+        }
+    }
+}
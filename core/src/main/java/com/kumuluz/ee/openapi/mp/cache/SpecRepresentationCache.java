@@ -0,0 +1,674 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.cache;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.mp.subset.SpecSubset;
+import com.kumuluz.ee.openapi.mp.subset.SubsetExtractor;
+import com.kumuluz.ee.openapi.mp.util.SerializationUtil;
+import io.smallrye.openapi.api.OpenApiDocument;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of serialized OpenAPI document representations. Representations are built once for each {@link SpecFormat} and
+ * {@link ContentEncoding} and are rebuilt when the document served by {@link OpenApiDocument#INSTANCE} changes or when
+ * the cache is invalidated. Representations in all formats are built together, once the document is initialized.
+ * Representations of document subsets ({@link SpecSubset}) are built lazily from the document model, only in the
+ * requested format and content coding, and are kept in a bounded cache with least-recently-used eviction. Subsets which
+ * do not contain any path are not cached.
+ * <p>
+ * Rebuilds are coalesced: a single thread serializes the document while concurrent requests wait for its result or,
+ * if stale-while-revalidate is enabled, are served the previously cached representations.
+ * <p>
+ * Representations can be stored off-heap in direct buffers, within a configurable budget ({@link OffHeapStore}).
+ * Representations of the whole document are always kept, representations of subsets are evicted when the budget is
+ * exhausted.
+ *
+ * @since 2.0.0
+ */
+public class SpecRepresentationCache {
+
+    private static final Logger LOG = Logger.getLogger(SpecRepresentationCache.class.getName());
+
+    private static final SpecRepresentationCache INSTANCE = new SpecRepresentationCache();
+
+    private volatile Snapshot snapshot;
+    private volatile OffHeapStore offHeapStore;
+
+    private CompletableFuture<Snapshot> pendingBuild;
+    private OpenAPI pendingModel;
+
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder formatBuilds = new LongAdder();
+    private final LongAdder subsetBuilds = new LongAdder();
+    private final LongAdder subsetExtractions = new LongAdder();
+    private final LongAdder coalescedWaits = new LongAdder();
+    private final LongAdder staleResponses = new LongAdder();
+
+    private SpecRepresentationCache() {
+    }
+
+    public static SpecRepresentationCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.servlet.cache.enabled").orElse(true);
+    }
+
+    /**
+     * Serializes the given document in all formats and compresses it with all enabled content codings, replacing any
+     * previously cached representations. If the same document is already being serialized by another thread, waits for
+     * its result instead.
+     *
+     * @param model document to serialize
+     * @throws IOException if the document could not be serialized
+     */
+    public void build(OpenAPI model) throws IOException {
+        refresh(model, true);
+    }
+
+    /**
+     * Marks all cached representations as outdated. They will be rebuilt on the next request. Until then they can still
+     * be served if stale-while-revalidate is enabled.
+     */
+    public void invalidate() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.invalidated = true;
+        }
+    }
+
+    /**
+     * Discards all cached representations and releases the memory they use. They are built again on the next request.
+     */
+    public void clear() {
+        Snapshot previous;
+        synchronized (this) {
+            previous = snapshot;
+            snapshot = null;
+        }
+
+        if (previous != null) {
+            releaseSnapshot(previous);
+        }
+    }
+
+    /**
+     * Returns cached representations of the current document in the given format, keyed by their content coding.
+     * Identity coding is always present. If the document has changed since the representations were built, they are
+     * rebuilt first.
+     *
+     * @param format requested format
+     * @return serialized representations
+     * @throws IOException if the document could not be serialized
+     */
+    public Map<ContentEncoding, SpecRepresentation> get(SpecFormat format) throws IOException {
+        Snapshot current = getSnapshot();
+
+        CompletableFuture<Map<ContentEncoding, SpecRepresentation>> flight;
+        boolean leader = false;
+        synchronized (current.representations) {
+            flight = current.representations.get(format);
+            if (flight == null) {
+                flight = new CompletableFuture<>();
+                current.representations.put(format, flight);
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            buildFormat(current, format, flight);
+        } else if (!flight.isDone()) {
+            coalescedWaits.increment();
+        }
+
+        return await(flight);
+    }
+
+    /**
+     * Returns content codings in which representations of subsets can be requested.
+     *
+     * @return available content codings, always including identity
+     */
+    public Set<ContentEncoding> getSubsetEncodings() {
+        boolean compressionEnabled = ConfigurationUtil.getInstance()
+                .getBoolean("kumuluzee.openapi-mp.servlet.compression.enabled").orElse(true);
+
+        return compressionEnabled ? EnumSet.allOf(ContentEncoding.class) : EnumSet.of(ContentEncoding.IDENTITY);
+    }
+
+    /**
+     * Returns cached representation of a subset of the current document in the given format and content coding.
+     * Subset is extracted and serialized on first request. If the compressed representation would not be smaller, the
+     * identity representation is returned instead.
+     *
+     * @param subset   requested subset
+     * @param format   requested format
+     * @param encoding requested content coding, one of {@link #getSubsetEncodings()}
+     * @return serialized representation
+     * @throws IOException if the document could not be serialized
+     */
+    public SpecRepresentation get(SpecSubset subset, SpecFormat format, ContentEncoding encoding)
+            throws IOException {
+        Snapshot current = getSnapshot();
+        SubsetEntry entry = getSubsetEntry(current, subset);
+
+        CompletableFuture<SpecRepresentation> flight;
+        boolean leader = false;
+        synchronized (entry) {
+            flight = entry.representations.get(format).get(encoding);
+            if (flight == null) {
+                flight = new CompletableFuture<>();
+                entry.representations.get(format).put(encoding, flight);
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            CompletableFuture<SpecRepresentation> owner = flight;
+            try {
+                if (entry.cached) {
+                    flight.complete(buildRepresentation(current, entry.model, format, encoding, owner,
+                            () -> entry.remove(format, encoding, owner)));
+                } else {
+                    flight.complete(buildRepresentation(current, entry.model, format, encoding, null, null));
+                }
+            } catch (IOException | RuntimeException e) {
+                entry.remove(format, encoding, flight);
+                releaseOffHeap(flight);
+                flight.completeExceptionally(e);
+                throw e;
+            }
+        } else if (!flight.isDone()) {
+            coalescedWaits.increment();
+        } else if (offHeapStore != null) {
+            offHeapStore.touch(flight);
+        }
+
+        return await(flight);
+    }
+
+    /**
+     * Returns the cached entry of the subset, extracting it from the document if it is not cached. Concurrent requests
+     * for the same subset wait for a single extraction.
+     */
+    private SubsetEntry getSubsetEntry(Snapshot current, SpecSubset subset) throws IOException {
+        CompletableFuture<SubsetEntry> extraction;
+        boolean leader = false;
+        synchronized (current.subsets) {
+            SubsetEntry entry = current.subsets.get(subset);
+            if (entry != null) {
+                return entry;
+            }
+
+            extraction = current.extractions.get(subset);
+            if (extraction == null) {
+                extraction = new CompletableFuture<>();
+                current.extractions.put(subset, extraction);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            coalescedWaits.increment();
+            return await(extraction);
+        }
+
+        try {
+            OpenAPI extracted = SubsetExtractor.extract(current.model, subset);
+            subsetExtractions.increment();
+            // unknown tags and path prefixes are not cached, so that they cannot evict useful entries
+            boolean cached = extracted.getPaths() != null && extracted.getPaths().getPathItems() != null &&
+                    !extracted.getPaths().getPathItems().isEmpty();
+            SubsetEntry entry = new SubsetEntry(extracted, cached);
+
+            synchronized (current.subsets) {
+                if (cached) {
+                    current.subsets.put(subset, entry);
+                }
+                current.extractions.remove(subset);
+            }
+            extraction.complete(entry);
+
+            return entry;
+        } catch (RuntimeException e) {
+            synchronized (current.subsets) {
+                current.extractions.remove(subset);
+            }
+            extraction.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return store of off-heap representations or null if representations are stored on the heap
+     */
+    public OffHeapStore getOffHeapStore() {
+        return offHeapStore;
+    }
+
+    /**
+     * @return number of times the document representations were built
+     */
+    public long getBuilds() {
+        return builds.sum();
+    }
+
+    /**
+     * @return number of times representations of the whole document were built in a single format
+     */
+    public long getFormatBuilds() {
+        return formatBuilds.sum();
+    }
+
+    /**
+     * @return number of times representations of subsets were built
+     */
+    public long getSubsetBuilds() {
+        return subsetBuilds.sum();
+    }
+
+    /**
+     * @return number of times subsets were extracted from the document
+     */
+    public long getSubsetExtractions() {
+        return subsetExtractions.sum();
+    }
+
+    /**
+     * @return number of subsets currently cached
+     */
+    public int getSubsetEntries() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return 0;
+        }
+
+        synchronized (current.subsets) {
+            return current.subsets.size();
+        }
+    }
+
+    /**
+     * @return number of requests which waited for a build started by another request
+     */
+    public long getCoalescedWaits() {
+        return coalescedWaits.sum();
+    }
+
+    /**
+     * @return number of requests served outdated representations while a rebuild was in progress
+     */
+    public long getStaleResponses() {
+        return staleResponses.sum();
+    }
+
+    private Snapshot getSnapshot() throws IOException {
+        OpenAPI model = OpenApiDocument.INSTANCE.get();
+
+        Snapshot current = snapshot;
+        if (current != null && current.isValidFor(model)) {
+            return current;
+        }
+
+        return refresh(model, false);
+    }
+
+    private Snapshot refresh(OpenAPI model, boolean force) throws IOException {
+        CompletableFuture<Snapshot> flight;
+        boolean leader = false;
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (!force && current != null && current.isValidFor(model)) {
+                return current;
+            }
+
+            flight = pendingBuild;
+            if (flight == null || pendingModel != model) {
+                flight = new CompletableFuture<>();
+                pendingBuild = flight;
+                pendingModel = model;
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            try {
+                Snapshot built = createSnapshot(model);
+                Snapshot previous;
+                synchronized (this) {
+                    previous = snapshot;
+                    snapshot = built;
+                    clearPending(flight);
+                }
+                if (previous != null) {
+                    releaseSnapshot(previous);
+                }
+                flight.complete(built);
+                return built;
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    clearPending(flight);
+                }
+                flight.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        Snapshot stale = snapshot;
+        if (!force && stale != null && isStaleWhileRevalidate()) {
+            staleResponses.increment();
+            return stale;
+        }
+
+        coalescedWaits.increment();
+        return await(flight);
+    }
+
+    private void clearPending(CompletableFuture<Snapshot> flight) {
+        if (pendingBuild == flight) {
+            pendingBuild = null;
+            pendingModel = null;
+        }
+    }
+
+    private Snapshot createSnapshot(OpenAPI model) throws IOException {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        boolean compressionEnabled = configurationUtil.getBoolean("kumuluzee.openapi-mp.servlet.compression.enabled")
+                .orElse(true);
+        int compressionLevel = configurationUtil.getInteger("kumuluzee.openapi-mp.servlet.compression.level")
+                .orElse(Deflater.DEFAULT_COMPRESSION);
+        int maxSubsets = configurationUtil.getInteger("kumuluzee.openapi-mp.servlet.subsets.max-entries")
+                .orElse(32);
+
+        if (offHeapStore == null &&
+                configurationUtil.getBoolean("kumuluzee.openapi-mp.servlet.cache.off-heap.enabled").orElse(false)) {
+            offHeapStore = new OffHeapStore(configurationUtil
+                    .getLong("kumuluzee.openapi-mp.servlet.cache.off-heap.max-size").orElse(64L * 1024 * 1024));
+        }
+
+        // HTTP dates have a resolution of one second
+        long generatedAt = System.currentTimeMillis() / 1000 * 1000;
+
+        Snapshot built = new Snapshot(model, generatedAt, compressionEnabled, compressionLevel, maxSubsets,
+                offHeapStore);
+        for (SpecFormat format : SpecFormat.values()) {
+            CompletableFuture<Map<ContentEncoding, SpecRepresentation>> flight = new CompletableFuture<>();
+            built.representations.put(format, flight);
+            buildFormat(built, format, flight);
+        }
+        builds.increment();
+
+        LOG.fine("Serialized OpenAPI document representations cached.");
+
+        return built;
+    }
+
+    private void buildFormat(Snapshot snapshot, SpecFormat format,
+                             CompletableFuture<Map<ContentEncoding, SpecRepresentation>> flight) throws IOException {
+        try {
+            flight.complete(buildRepresentations(snapshot, format, flight));
+            formatBuilds.increment();
+        } catch (IOException | RuntimeException e) {
+            synchronized (snapshot.representations) {
+                snapshot.representations.remove(format, flight);
+            }
+            releaseOffHeap(flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void releaseSnapshot(Snapshot released) {
+        List<CompletableFuture<Map<ContentEncoding, SpecRepresentation>>> formats;
+        synchronized (released.representations) {
+            formats = new ArrayList<>(released.representations.values());
+        }
+        formats.forEach(this::releaseOffHeap);
+        synchronized (released.subsets) {
+            released.subsets.values().forEach(entry -> entry.forEachRepresentation(this::releaseOffHeap));
+        }
+    }
+
+    private void releaseOffHeap(Object owner) {
+        OffHeapStore store = offHeapStore;
+        if (store != null) {
+            store.release(owner);
+        }
+    }
+
+    private static boolean isStaleWhileRevalidate() {
+        return ConfigurationUtil.getInstance()
+                .getBoolean("kumuluzee.openapi-mp.servlet.cache.stale-while-revalidate").orElse(false);
+    }
+
+    private static <T> T await(CompletableFuture<T> flight) throws IOException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the OpenAPI document to be serialized.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Builds representations of the whole document in a single format.
+     *
+     * @param owner key of the off-heap reservation
+     */
+    private Map<ContentEncoding, SpecRepresentation> buildRepresentations(Snapshot snapshot, SpecFormat format,
+                                                                          Object owner)
+            throws IOException {
+        Map<ContentEncoding, byte[]> serialized = new EnumMap<>(ContentEncoding.class);
+
+        byte[] content = SerializationUtil.serialize(snapshot.model, format);
+        serialized.put(ContentEncoding.IDENTITY, content);
+        long size = content.length;
+
+        if (snapshot.compressionEnabled) {
+            for (ContentEncoding encoding : ContentEncoding.values()) {
+                if (encoding == ContentEncoding.IDENTITY) {
+                    continue;
+                }
+
+                byte[] compressed = compress(content, encoding, snapshot.compressionLevel);
+                // small documents may not compress at all, identity is served in that case
+                if (compressed.length < content.length) {
+                    serialized.put(encoding, compressed);
+                    size += compressed.length;
+                }
+            }
+        }
+
+        // representations of the whole document are pinned, they are released when the snapshot is replaced;
+        // representations which do not fit into the off-heap budget stay on the heap
+        OffHeapStore store = offHeapStore;
+        boolean direct = store != null && store.reserve(owner, size, true, () -> {
+        });
+
+        Map<ContentEncoding, SpecRepresentation> representations = new EnumMap<>(ContentEncoding.class);
+        for (Map.Entry<ContentEncoding, byte[]> encoding : serialized.entrySet()) {
+            ByteBuffer buffer = direct ? OffHeapStore.allocate(encoding.getValue()) :
+                    ByteBuffer.wrap(encoding.getValue());
+            representations.put(encoding.getKey(), new SpecRepresentation(buffer, format.getMimeType(),
+                    encoding.getKey(), snapshot.generatedAt));
+        }
+
+        return Collections.unmodifiableMap(representations);
+    }
+
+    /**
+     * Builds a single representation of a subset.
+     *
+     * @param owner   key of the off-heap reservation, null if the representation is not cached
+     * @param onEvict called when the representation is evicted from the off-heap store
+     */
+    private SpecRepresentation buildRepresentation(Snapshot snapshot, OpenAPI subsetModel, SpecFormat format,
+                                                   ContentEncoding encoding, Object owner, Runnable onEvict)
+            throws IOException {
+        byte[] content = SerializationUtil.serialize(subsetModel, format);
+        ContentEncoding servedEncoding = ContentEncoding.IDENTITY;
+
+        if (encoding != ContentEncoding.IDENTITY && snapshot.compressionEnabled) {
+            byte[] compressed = compress(content, encoding, snapshot.compressionLevel);
+            // small documents may not compress at all, identity is served in that case
+            if (compressed.length < content.length) {
+                content = compressed;
+                servedEncoding = encoding;
+            }
+        }
+
+        if (owner != null) {
+            subsetBuilds.increment();
+        }
+
+        OffHeapStore store = offHeapStore;
+        boolean direct = owner != null && store != null && store.reserve(owner, content.length, false, onEvict);
+
+        return new SpecRepresentation(direct ? OffHeapStore.allocate(content) : ByteBuffer.wrap(content),
+                format.getMimeType(), servedEncoding, snapshot.generatedAt);
+    }
+
+    private static byte[] compress(byte[] content, ContentEncoding encoding, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4);
+
+        if (encoding == ContentEncoding.GZIP) {
+            try (OutputStream os = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(level);
+                }
+            }) {
+                os.write(content);
+            }
+        } else {
+            // deflate content coding is the zlib format
+            Deflater deflater = new Deflater(level);
+            try (OutputStream os = new DeflaterOutputStream(compressed, deflater)) {
+                os.write(content);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static final class Snapshot {
+        private final OpenAPI model;
+        private final long generatedAt;
+        private final boolean compressionEnabled;
+        private final int compressionLevel;
+        private final Map<SpecSubset, SubsetEntry> subsets;
+        // subsets being extracted, guarded by the lock of subsets
+        private final Map<SpecSubset, CompletableFuture<SubsetEntry>> extractions = new HashMap<>();
+        private final Map<SpecFormat, CompletableFuture<Map<ContentEncoding, SpecRepresentation>>> representations =
+                new EnumMap<>(SpecFormat.class);
+
+        private volatile boolean invalidated;
+
+        Snapshot(OpenAPI model, long generatedAt, boolean compressionEnabled, int compressionLevel, int maxSubsets,
+                 OffHeapStore offHeapStore) {
+            this.model = model;
+            this.generatedAt = generatedAt;
+            this.compressionEnabled = compressionEnabled;
+            this.compressionLevel = compressionLevel;
+            this.subsets = new LinkedHashMap<SpecSubset, SubsetEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<SpecSubset, SubsetEntry> eldest) {
+                    if (size() > maxSubsets) {
+                        if (offHeapStore != null) {
+                            eldest.getValue().forEachRepresentation(offHeapStore::release);
+                        }
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        boolean isValidFor(OpenAPI model) {
+            return !invalidated && this.model == model;
+        }
+    }
+
+    private static final class SubsetEntry {
+        // containers of the selected elements, the elements are shared with the snapshot model
+        private final OpenAPI model;
+        // entries of empty subsets are only shared by concurrent requests and their representations are kept on heap
+        private final boolean cached;
+        private final Map<SpecFormat, Map<ContentEncoding, CompletableFuture<SpecRepresentation>>> representations =
+                new EnumMap<>(SpecFormat.class);
+
+        SubsetEntry(OpenAPI model, boolean cached) {
+            this.model = model;
+            this.cached = cached;
+            for (SpecFormat format : SpecFormat.values()) {
+                representations.put(format, new EnumMap<>(ContentEncoding.class));
+            }
+        }
+
+        synchronized void remove(SpecFormat format, ContentEncoding encoding,
+                                 CompletableFuture<SpecRepresentation> flight) {
+            representations.get(format).remove(encoding, flight);
+        }
+
+        void forEachRepresentation(Consumer<Object> action) {
+            List<CompletableFuture<SpecRepresentation>> flights = new ArrayList<>();
+            synchronized (this) {
+                representations.values().forEach(encoded -> flights.addAll(encoded.values()));
+            }
+            flights.forEach(action);
+        }
+    }
+}
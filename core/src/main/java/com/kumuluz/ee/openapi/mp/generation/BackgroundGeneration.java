@@ -0,0 +1,151 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.generation;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Generates the OpenAPI document in a background thread once the server has started, so that server startup does not
+ * depend on the size of the API. Until the document is generated, the OpenAPI endpoint responds with
+ * {@code 503 Service Unavailable} or waits for the generation, depending on the configuration. When background
+ * generation is disabled, the document is generated during startup and readiness is signalled immediately.
+ *
+ * @since 2.0.0
+ */
+public class BackgroundGeneration {
+
+    private static final Logger LOG = Logger.getLogger(BackgroundGeneration.class.getName());
+
+    private static final BackgroundGeneration INSTANCE = new BackgroundGeneration();
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    private Runnable generation;
+    private boolean started;
+
+    private BackgroundGeneration() {
+    }
+
+    public static BackgroundGeneration getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.generation.background").orElse(false);
+    }
+
+    /**
+     * Prepares the generation to be run by {@link #start()}.
+     *
+     * @param generation generates the document (and prepares the endpoint)
+     */
+    public synchronized void schedule(Runnable generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Starts the scheduled generation in a background thread. Subsequent calls have no effect.
+     */
+    public synchronized void start() {
+        if (started || generation == null) {
+            return;
+        }
+        started = true;
+
+        // context class loader is needed for loading filters, readers and configuration sources
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread thread = new Thread(() -> run(generation), "kumuluzee-openapi-generation");
+        thread.setContextClassLoader(contextClassLoader);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Signals readiness without generating the document in the background, used when background generation is
+     * disabled.
+     */
+    public void skip() {
+        ready.complete(null);
+    }
+
+    /**
+     * @return true if the document has been generated (or background generation is disabled)
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * Waits for the generation to complete.
+     *
+     * @param timeout maximum time to wait in milliseconds, {@code 0} to return immediately
+     * @return true if the generation completed (successfully or not), false if it is still in progress
+     */
+    public boolean await(long timeout) {
+        if (ready.isDone() || timeout <= 0) {
+            return ready.isDone();
+        }
+
+        try {
+            ready.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // failure is reported by the generation, timeout by the return value
+        }
+
+        return ready.isDone();
+    }
+
+    /**
+     * @return future completed when the document has been generated, completed exceptionally if the generation failed
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready.thenApply(v -> v);
+    }
+
+    private void run(Runnable generation) {
+        long start = System.nanoTime();
+
+        try {
+            generation.run();
+        } catch (Throwable e) {
+            // errors (e.g. a missing class of a filter or reader) must not leave requests waiting for readiness
+            LOG.log(Level.SEVERE, "Could not generate the OpenAPI document: " + e.getMessage(), e);
+            ready.completeExceptionally(e);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return;
+        }
+
+        ready.complete(null);
+        LOG.info("OpenAPI document generated in background in " +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+    }
+}
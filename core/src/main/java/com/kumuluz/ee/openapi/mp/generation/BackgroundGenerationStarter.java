@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.generation;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.eclipse.jetty.util.component.LifeCycle;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+/**
+ * Starts {@link BackgroundGeneration} when the Jetty server has started, so the generation does not compete with the
+ * rest of the startup. If the server cannot be obtained from the servlet context, the generation is started
+ * immediately.
+ *
+ * @since 2.0.0
+ */
+public class BackgroundGenerationStarter implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        ContextHandler contextHandler = ContextHandler.getContextHandler(sce.getServletContext());
+        Server server = (contextHandler == null) ? null : contextHandler.getServer();
+
+        if (server == null || server.isStarted()) {
+            BackgroundGeneration.getInstance().start();
+            return;
+        }
+
+        server.addEventListener(new LifeCycle.Listener() {
+            @Override
+            public void lifeCycleStarted(LifeCycle event) {
+                BackgroundGeneration.getInstance().start();
+            }
+        });
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+    }
+}
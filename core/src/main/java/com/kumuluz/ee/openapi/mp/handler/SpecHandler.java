@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.handler;
+
+import com.kumuluz.ee.openapi.mp.OpenApiMPServlet;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Jetty handler serving the OpenAPI document in front of the servlet handler. Requests for the document do not pass
+ * through the servlet filter chain, all other requests are passed on to the wrapped handlers. Requests are processed
+ * by the {@link OpenApiMPServlet} registered in the servlet context, so the document is served exactly as it would be
+ * by the servlet, sharing its cache and bulkhead.
+ *
+ * @since 2.0.0
+ */
+public class SpecHandler extends HandlerWrapper {
+
+    private final String path;
+    private final ServletContextHandler contextHandler;
+
+    private volatile ServletHolder servletHolder;
+
+    public SpecHandler(String path, ServletContextHandler contextHandler) {
+        this.path = path;
+        this.contextHandler = contextHandler;
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, ServletException {
+        ServletHolder holder = path.equals(target) ? getServletHolder() : null;
+
+        if (holder == null) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+
+        baseRequest.setHandled(true);
+        holder.handle(baseRequest, request, response);
+    }
+
+    private ServletHolder getServletHolder() {
+        ServletHolder holder = servletHolder;
+
+        if (holder == null) {
+            for (ServletHolder registered : contextHandler.getServletHandler().getServlets()) {
+                if (OpenApiMPServlet.class.getName().equals(registered.getClassName())) {
+                    holder = registered;
+                    servletHolder = holder;
+                    break;
+                }
+            }
+        }
+
+        return holder;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.handler;
+
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.component.LifeCycle;
+
+import java.util.logging.Logger;
+
+/**
+ * Inserts {@link SpecHandler} into the handler chain of the servlet context, in front of the session, security and
+ * servlet handlers. {@link com.kumuluz.ee.jetty.JettyServletServer} does not expose the servlet context, so the
+ * installer is registered as a listener of the context and inserts the handler when the context starts, before any of
+ * its handlers are started.
+ *
+ * @since 2.0.0
+ */
+public class SpecHandlerInstaller implements LifeCycle.Listener {
+
+    private static final Logger LOG = Logger.getLogger(SpecHandlerInstaller.class.getName());
+
+    private final String path;
+
+    public SpecHandlerInstaller(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void lifeCycleStarting(LifeCycle event) {
+        if (!(event instanceof ServletContextHandler)) {
+            return;
+        }
+
+        ServletContextHandler contextHandler = (ServletContextHandler) event;
+        if (contextHandler.getChildHandlerByClass(SpecHandler.class) != null) {
+            // context is being restarted
+            return;
+        }
+
+        try {
+            contextHandler.insertHandler(new SpecHandler(path, contextHandler));
+        } catch (IllegalStateException e) {
+            LOG.warning("Could not install OpenAPI handler, the OpenAPI document will be served by the servlet: " +
+                    e.getMessage());
+        }
+    }
+}
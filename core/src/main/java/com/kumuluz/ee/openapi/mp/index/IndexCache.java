@@ -0,0 +1,296 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.index;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.openapi.mp.utils.DigestUtils;
+import org.jboss.jandex.CompositeIndex;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.IndexWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of the annotation index used to generate the OpenAPI document. The index is stored together with a
+ * fingerprint of the scanned classpath elements (name, size and modification time of jars and files in directories)
+ * and the scan configuration. When the fingerprint matches on the next startup, the index is loaded from the cache and
+ * classpath scanning is skipped.
+ * <p>
+ * The cached index is trusted when the document is generated, so the cache directory has to be configured explicitly
+ * and the directory and the cached index have to be owned by the current user and must not be writable by others.
+ *
+ * @since 2.0.0
+ */
+public class IndexCache {
+
+    private static final Logger LOG = Logger.getLogger(IndexCache.class.getName());
+
+    private static final String FORMAT_VERSION = "2";
+
+    private final Path file;
+    private final String fingerprint;
+
+    private IndexCache(Path file, String fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.index-cache.enabled")
+                .orElse(false);
+    }
+
+    /**
+     * Creates the cache entry for the given classpath and scan configuration.
+     *
+     * @param classpath         classpath elements (jars and directories) which are scanned
+     * @param scanConfiguration values of the settings which influence scanning
+     * @return cache entry or {@code null} if the cache directory is not configured
+     * @throws IOException if the classpath elements could not be read
+     */
+    public static IndexCache create(List<File> classpath, List<String> scanConfiguration) throws IOException {
+        Optional<Path> configuredDirectory = ConfigurationUtil.getInstance()
+                .get("kumuluzee.openapi-mp.scanning.index-cache.directory")
+                .map(Paths::get);
+        if (!configuredDirectory.isPresent()) {
+            LOG.warning("Annotation index cache is enabled, but kumuluzee.openapi-mp.scanning.index-cache.directory " +
+                    "is not set, index will not be cached.");
+            return null;
+        }
+        Path directory = configuredDirectory.get().toAbsolutePath();
+
+        MessageDigest classpathDigest = DigestUtils.sha256();
+        MessageDigest fingerprintDigest = DigestUtils.sha256();
+
+        update(fingerprintDigest, FORMAT_VERSION);
+        for (String value : scanConfiguration) {
+            update(fingerprintDigest, value);
+        }
+
+        for (File element : classpath) {
+            Path path = element.toPath().toAbsolutePath();
+
+            update(classpathDigest, path.toString());
+            update(fingerprintDigest, path.toString());
+
+            if (Files.isDirectory(path)) {
+                for (Path child : listFiles(path)) {
+                    update(fingerprintDigest, path.relativize(child).toString());
+                    updateAttributes(fingerprintDigest, child);
+                }
+            } else {
+                updateAttributes(fingerprintDigest, path);
+            }
+        }
+
+        // entries of different applications sharing the directory are kept apart by the scanned classpath
+        String classpathHash = DigestUtils.toHex(classpathDigest.digest()).substring(0, 16);
+        Path file = directory.resolve("index-" + classpathHash + ".idx");
+
+        return new IndexCache(file, DigestUtils.toHex(fingerprintDigest.digest()));
+    }
+
+    /**
+     * Loads the cached index.
+     *
+     * @return cached index or {@code null} if the index is not cached or the classpath or configuration changed
+     */
+    public IndexView load() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+            UserPrincipal currentUser = getCurrentUser(file.getFileSystem());
+            if (!isTrusted(file.getParent(), currentUser) || !isTrusted(file, currentUser)) {
+                LOG.warning("Cached annotation index " + file + " is not owned by the current user or is writable " +
+                        "by others, scanning classpath.");
+                return null;
+            }
+
+            DataInputStream dataInput = new DataInputStream(is);
+
+            if (!fingerprint.equals(dataInput.readUTF())) {
+                LOG.info("Cached annotation index is stale, scanning classpath.");
+                return null;
+            }
+
+            int count = dataInput.readInt();
+            List<IndexView> indexes = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                byte[] serialized = new byte[dataInput.readInt()];
+                dataInput.readFully(serialized);
+
+                indexes.add(new IndexReader(new ByteArrayInputStream(serialized)).read());
+            }
+
+            LOG.info("Loaded annotation index from " + file);
+
+            return CompositeIndex.create(indexes);
+        } catch (IOException | RuntimeException e) {
+            LOG.warning("Could not load cached annotation index, scanning classpath: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the (partial) indexes in the cache. The previous entry is replaced atomically, so concurrently starting
+     * instances never read a partially written index.
+     */
+    public void store(List<Index> indexes) {
+        try {
+            createDirectory(file.getParent());
+
+            Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+            try {
+                // the owner of the written file is checked, which is the current user even if it cannot be looked up
+                if (!isTrusted(file.getParent(), Files.getOwner(tempFile))) {
+                    LOG.warning("Annotation index cache directory " + file.getParent() + " is not owned by the " +
+                            "current user or is writable by others, index will not be cached.");
+                    return;
+                }
+
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                    DataOutputStream dataOutput = new DataOutputStream(os);
+                    dataOutput.writeUTF(fingerprint);
+                    dataOutput.writeInt(indexes.size());
+
+                    // length-prefixed, since IndexReader may read past the end of a single index
+                    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+                    for (Index index : indexes) {
+                        serialized.reset();
+                        new IndexWriter(serialized).write(index);
+
+                        dataOutput.writeInt(serialized.size());
+                        serialized.writeTo(dataOutput);
+                    }
+                }
+
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+
+            LOG.fine("Stored annotation index to " + file);
+        } catch (IOException e) {
+            LOG.warning("Could not store annotation index to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void createDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Returns the user running this process, without writing to the file system, so that read-only and pre-built cache
+     * directories can be used. Where available, the user is read from the owner of {@code /proc/self}, since the user
+     * name does not always resolve (e.g. an arbitrary user id in a container).
+     */
+    private static UserPrincipal getCurrentUser(FileSystem fileSystem) throws IOException {
+        Path process = fileSystem.getPath("/proc/self");
+        if (Files.isDirectory(process)) {
+            return Files.getOwner(process);
+        }
+
+        return fileSystem.getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+    }
+
+    /**
+     * Checks that the file is owned by the current user and, where POSIX permissions are supported, that it is not
+     * writable by the group or others.
+     */
+    private static boolean isTrusted(Path path, UserPrincipal currentUser) throws IOException {
+        if (!currentUser.equals(Files.getOwner(path))) {
+            return false;
+        }
+
+        PosixFileAttributeView posixView = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+        if (posixView != null) {
+            Set<PosixFilePermission> permissions = posixView.readAttributes().permissions();
+            return !permissions.contains(PosixFilePermission.GROUP_WRITE) &&
+                    !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+        }
+
+        return true;
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void updateAttributes(MessageDigest digest, Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        update(digest, Long.toString(attributes.size()));
+        update(digest, Long.toString(attributes.lastModifiedTime().toMillis()));
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        // separator, so that consecutive values cannot be confused
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.index;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import org.jboss.jandex.CompositeIndex;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexView;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Loads Jandex indexes packaged with the application ({@code META-INF/jandex.idx}), which can be used instead of
+ * scanning the classpath at startup. Indexes are generated at build time by the {@code index} goal of the KumuluzEE
+ * OpenAPI MP Maven plugin (or any other tool producing Jandex indexes).
+ *
+ * @since 2.0.0
+ */
+public class PackagedIndex {
+
+    private static final Logger LOG = Logger.getLogger(PackagedIndex.class.getName());
+
+    public static final String INDEX_RESOURCE = "META-INF/jandex.idx";
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.packaged-index.enabled")
+                .orElse(true);
+    }
+
+    /**
+     * Loads packaged indexes of the scanned artifacts. Packaged indexes are only used if every scanned artifact
+     * contains one, otherwise classes of the artifacts without an index would be missing from the document.
+     *
+     * @param classLoader class loader used to look up the indexes
+     * @param scanJars    scanned jars in the format of {@code kumuluzee.dev.scan-libraries} ({@code artifact} or
+     *                    {@code artifact-1.0.0.jar})
+     * @param classpath   scanned classpath elements; directories (classes of an application running exploded) are
+     *                    scanned in addition to the jars
+     * @return merged indexes or {@code null} if any of the scanned artifacts does not contain an index
+     */
+    public static IndexView load(ClassLoader classLoader, List<String> scanJars, List<File> classpath) {
+        List<URL> selectedUrls = new ArrayList<>();
+
+        for (File element : classpath) {
+            if (!element.isDirectory()) {
+                continue;
+            }
+
+            File index = new File(element, INDEX_RESOURCE);
+            if (!index.isFile()) {
+                LOG.fine("Packaged annotation index not found in " + element + ", scanning classpath.");
+                return null;
+            }
+
+            try {
+                selectedUrls.add(index.toURI().toURL());
+            } catch (MalformedURLException e) {
+                LOG.warning("Could not read packaged annotation index " + index + ", scanning classpath: " +
+                        e.getMessage());
+                return null;
+            }
+        }
+
+        if (!scanJars.isEmpty()) {
+            List<URL> indexUrls;
+            try {
+                indexUrls = Collections.list(classLoader.getResources(INDEX_RESOURCE));
+            } catch (IOException e) {
+                LOG.warning("Could not look up packaged annotation indexes: " + e.getMessage());
+                return null;
+            }
+
+            for (String scanJar : scanJars) {
+                URL url = findJarIndex(indexUrls, scanJar);
+
+                if (url == null) {
+                    LOG.fine("Packaged annotation index not found for " + scanJar + ", scanning classpath.");
+                    return null;
+                }
+
+                selectedUrls.add(url);
+            }
+        }
+
+        if (selectedUrls.isEmpty()) {
+            return null;
+        }
+
+        List<IndexView> indexes = new ArrayList<>(selectedUrls.size());
+        for (URL url : selectedUrls) {
+            try (InputStream is = new BufferedInputStream(url.openStream())) {
+                indexes.add(new IndexReader(is).read());
+            } catch (IOException | RuntimeException e) {
+                LOG.warning("Could not read packaged annotation index " + url + ", scanning classpath: " +
+                        e.getMessage());
+                return null;
+            }
+        }
+
+        LOG.info("Using packaged annotation index (" + indexes.size() + " artifact(s)), classpath is not scanned.");
+
+        return CompositeIndex.create(indexes);
+    }
+
+    private static URL findJarIndex(List<URL> indexUrls, String scanJar) {
+        for (URL url : indexUrls) {
+            String jarName = getJarName(url);
+
+            if (jarName == null) {
+                continue;
+            }
+
+            if (matchesScanJar(jarName, scanJar)) {
+                return url;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if the jar is one of the scanned jars, with the same matching as used for ClassGraph jar acceptance.
+     *
+     * @param jarName name of the jar, e.g. {@code my-models-1.0.0.jar}
+     * @param scanJar scanned jar in the format of {@code kumuluzee.dev.scan-libraries}
+     */
+    static boolean matchesScanJar(String jarName, String scanJar) {
+        return scanJar.endsWith(".jar") ? jarName.equals(scanJar) :
+                jarName.startsWith(scanJar + "-") && jarName.endsWith(".jar");
+    }
+
+    /**
+     * Returns the name of the jar containing the resource, e.g. {@code my-models-1.0.0.jar} for
+     * {@code jar:file:/app/lib/my-models-1.0.0.jar!/META-INF/jandex.idx}.
+     */
+    static String getJarName(URL url) {
+        String path = url.getPath();
+        int separator = path.lastIndexOf("!/");
+
+        if (!"jar".equals(url.getProtocol()) || separator < 0) {
+            return null;
+        }
+
+        String jarPath = path.substring(0, separator);
+
+        return jarPath.substring(jarPath.lastIndexOf('/') + 1);
+    }
+}
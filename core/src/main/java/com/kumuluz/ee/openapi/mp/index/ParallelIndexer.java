@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.index;
+
+import com.kumuluz.ee.common.exceptions.KumuluzServerException;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.Resource;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Indexes scanned classes with a pool of workers. Every worker owns an {@link Indexer} and takes the next class to
+ * index from the shared list until all classes are indexed, so that workers stay busy regardless of the class sizes.
+ * Each worker produces a partial index, partial indexes are combined by the caller (e.g. with
+ * {@link org.jboss.jandex.CompositeIndex}).
+ *
+ * @since 2.0.0
+ */
+public class ParallelIndexer {
+
+    private static final Logger LOG = Logger.getLogger(ParallelIndexer.class.getName());
+
+    // indexing a class takes a fraction of a millisecond, small applications are indexed on the calling thread
+    private static final int MIN_CLASSES_PER_WORKER = 64;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Returns the number of workers used for scanning and indexing, configured with
+     * {@code kumuluzee.openapi-mp.scanning.parallelism}. Defaults to the number of available processors.
+     */
+    public static int getParallelism() {
+        return ConfigurationUtil.getInstance().getInteger("kumuluzee.openapi-mp.scanning.parallelism")
+                .filter(parallelism -> parallelism > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Indexes the given classes.
+     *
+     * @param classes     classes to index, the scan result they belong to must not be closed yet
+     * @param parallelism maximum number of workers
+     * @return partial indexes, one per worker
+     */
+    public static List<Index> index(List<ClassInfo> classes, int parallelism) {
+        int workers = Math.max(1, Math.min(parallelism, classes.size() / MIN_CLASSES_PER_WORKER));
+        AtomicInteger next = new AtomicInteger();
+
+        if (workers == 1) {
+            return Collections.singletonList(indexClasses(classes, next));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "kumuluzee-openapi-indexer-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<Index>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> indexClasses(classes, next)));
+            }
+
+            List<Index> indexes = new ArrayList<>(workers);
+            for (Future<Index> future : futures) {
+                indexes.add(future.get());
+            }
+
+            return indexes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KumuluzServerException("Interrupted while building the annotation index", e);
+        } catch (ExecutionException e) {
+            throw new KumuluzServerException("Could not build the annotation index", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Index indexClasses(List<ClassInfo> classes, AtomicInteger next) {
+        Indexer indexer = new Indexer();
+
+        for (int i = next.getAndIncrement(); i < classes.size(); i = next.getAndIncrement()) {
+            ClassInfo classInfo = classes.get(i);
+
+            // class file is read from the classpath element ClassGraph already opened, not looked up again
+            // whole class file is loaded at once, skipping over ClassGraph's inflating stream is slow
+            try (Resource resource = classInfo.getResource()) {
+                indexer.index(new ByteArrayInputStream(resource.load()));
+            } catch (IOException e) {
+                LOG.warning("Skipped scanning class: " + classInfo.getName());
+            }
+        }
+
+        return indexer.complete();
+    }
+}
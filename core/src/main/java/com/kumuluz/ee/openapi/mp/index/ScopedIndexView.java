@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.index;
+
+import io.smallrye.openapi.api.OpenApiConfig;
+import io.smallrye.openapi.runtime.scanner.FilteredIndexView;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index view restricted to the classes which would be indexed by scanning the classpath. Classes in rejected packages
+ * and rejected classes are excluded and, when scanning is optimized, only classes loaded from classpath directories or
+ * from the scanned jars are included. The include/exclude configuration is applied as well.
+ * <p>
+ * The location of classes is looked up once per package, by the location of the first class of the package, instead of
+ * once per class. Packages split over several classpath elements are scoped by the element found first.
+ *
+ * @since 2.0.0
+ */
+public class ScopedIndexView extends FilteredIndexView {
+
+    private final ClassLoader classLoader;
+    private final List<String> rejectedPackages;
+    private final List<String> rejectedClasses;
+    private final List<String> scanJars;
+
+    private final Map<String, Boolean> packagesInScope = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> jarsInScope = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate         index to restrict
+     * @param config           OpenAPI configuration with the include/exclude configuration
+     * @param classLoader      class loader used to locate the packages
+     * @param rejectedPackages packages excluded together with their subpackages
+     * @param rejectedClasses  classes excluded by name
+     * @param scanJars         jars scanned when scanning is optimized, in the format of
+     *                         {@code kumuluzee.dev.scan-libraries}, or {@code null} if all jars are scanned
+     */
+    public ScopedIndexView(IndexView delegate, OpenApiConfig config, ClassLoader classLoader,
+                           List<String> rejectedPackages, List<String> rejectedClasses, List<String> scanJars) {
+        super(delegate, config);
+        this.classLoader = classLoader;
+        this.rejectedPackages = rejectedPackages;
+        this.rejectedClasses = rejectedClasses;
+        this.scanJars = scanJars;
+    }
+
+    @Override
+    public boolean accepts(DotName className) {
+        return super.accepts(className) && isInScope(className.toString());
+    }
+
+    private boolean isInScope(String name) {
+        if (rejectedClasses.contains(name)) {
+            return false;
+        }
+        for (String rejectedPackage : rejectedPackages) {
+            if (name.startsWith(rejectedPackage + ".")) {
+                return false;
+            }
+        }
+
+        if (scanJars == null) {
+            return true;
+        }
+
+        int separator = name.lastIndexOf('.');
+        String packageName = (separator < 0) ? "" : name.substring(0, separator);
+
+        return packagesInScope.computeIfAbsent(packageName, p -> isLocationInScope(name));
+    }
+
+    private boolean isLocationInScope(String className) {
+        URL url = classLoader.getResource(className.replace('.', '/') + ".class");
+        if (url == null) {
+            // not on the classpath, would not be found by scanning
+            return false;
+        }
+        if ("file".equals(url.getProtocol())) {
+            // classpath directories are always scanned
+            return true;
+        }
+
+        String jarName = PackagedIndex.getJarName(url);
+        if (jarName == null) {
+            return false;
+        }
+
+        return jarsInScope.computeIfAbsent(jarName,
+                j -> scanJars.stream().anyMatch(scanJar -> PackagedIndex.matchesScanJar(j, scanJar)));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.index;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import io.github.classgraph.AnnotationClassRef;
+import io.github.classgraph.AnnotationInfo;
+import io.github.classgraph.AnnotationInfoList;
+import io.github.classgraph.AnnotationParameterValue;
+import io.github.classgraph.ArrayTypeSignature;
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ClassRefTypeSignature;
+import io.github.classgraph.ClassTypeSignature;
+import io.github.classgraph.FieldInfo;
+import io.github.classgraph.MethodInfo;
+import io.github.classgraph.MethodParameterInfo;
+import io.github.classgraph.MethodTypeSignature;
+import io.github.classgraph.ReferenceTypeSignature;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.TypeArgument;
+import io.github.classgraph.TypeParameter;
+import io.github.classgraph.TypeSignature;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects only the classes relevant for the OpenAPI document from the scanned classes. Classes annotated with JAX-RS
+ * or MicroProfile OpenAPI annotations (on the class, its methods, method parameters or fields) are selected first,
+ * together with their subclasses and implementations. Classes referenced from selected classes (supertypes, field
+ * types, method signatures including generic arguments and class values of annotations) are then selected
+ * transitively.
+ *
+ * @since 2.0.0
+ */
+public class TargetedScan {
+
+    private static final String[] SEED_ANNOTATION_PREFIXES = {
+            "javax.ws.rs.",
+            "jakarta.ws.rs.",
+            "org.eclipse.microprofile.openapi.annotations."
+    };
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.scanning.targeted").orElse(false);
+    }
+
+    /**
+     * Enables the scan information required to select the classes.
+     */
+    public static void configure(ClassGraph classGraph) {
+        classGraph.enableAnnotationInfo()
+                .enableMethodInfo()
+                .enableFieldInfo()
+                .ignoreFieldVisibility();
+    }
+
+    /**
+     * Selects the classes to index.
+     *
+     * @param scanResult result of the scan configured with {@link #configure(ClassGraph)}
+     * @return selected classes
+     */
+    public static List<ClassInfo> select(ScanResult scanResult) {
+        Set<String> selectedNames = new HashSet<>();
+        List<ClassInfo> selected = new ArrayList<>();
+        Deque<ClassInfo> queue = new ArrayDeque<>();
+
+        for (ClassInfo classInfo : scanResult.getAllClasses()) {
+            if (isSeed(classInfo)) {
+                select(classInfo, selectedNames, selected, queue);
+
+                // annotations may be declared on interfaces and abstract classes only
+                classInfo.getSubclasses().forEach(c -> select(c, selectedNames, selected, queue));
+                classInfo.getClassesImplementing().forEach(c -> select(c, selectedNames, selected, queue));
+            }
+        }
+
+        Set<String> referenced = new HashSet<>();
+        while (!queue.isEmpty()) {
+            referenced.clear();
+            collectReferences(queue.poll(), referenced);
+
+            for (String name : referenced) {
+                ClassInfo classInfo = scanResult.getClassInfo(name);
+
+                if (classInfo != null) {
+                    select(classInfo, selectedNames, selected, queue);
+                }
+            }
+        }
+
+        return selected;
+    }
+
+    private static void select(ClassInfo classInfo, Set<String> selectedNames, List<ClassInfo> selected,
+                               Deque<ClassInfo> queue) {
+        // external classes were not scanned (e.g. JDK classes), so they cannot be indexed
+        if (!classInfo.isExternalClass() && selectedNames.add(classInfo.getName())) {
+            selected.add(classInfo);
+            queue.add(classInfo);
+        }
+    }
+
+    private static boolean isSeed(ClassInfo classInfo) {
+        if (hasSeedAnnotation(classInfo.getAnnotationInfo())) {
+            return true;
+        }
+
+        for (MethodInfo methodInfo : classInfo.getDeclaredMethodInfo()) {
+            if (hasSeedAnnotation(methodInfo.getAnnotationInfo())) {
+                return true;
+            }
+
+            for (MethodParameterInfo parameterInfo : methodInfo.getParameterInfo()) {
+                if (hasSeedAnnotation(parameterInfo.getAnnotationInfo())) {
+                    return true;
+                }
+            }
+        }
+
+        for (FieldInfo fieldInfo : classInfo.getDeclaredFieldInfo()) {
+            if (hasSeedAnnotation(fieldInfo.getAnnotationInfo())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasSeedAnnotation(AnnotationInfoList annotations) {
+        for (AnnotationInfo annotation : annotations) {
+            for (String prefix : SEED_ANNOTATION_PREFIXES) {
+                if (annotation.getName().startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static void collectReferences(ClassInfo classInfo, Set<String> names) {
+        ClassTypeSignature classSignature = classInfo.getTypeSignatureOrTypeDescriptor();
+        if (classSignature != null) {
+            collectReferences(classSignature.getSuperclassSignature(), names);
+            classSignature.getSuperinterfaceSignatures().forEach(s -> collectReferences(s, names));
+            collectTypeParameterReferences(classSignature.getTypeParameters(), names);
+        }
+
+        collectAnnotationReferences(classInfo.getAnnotationInfo(), names);
+
+        for (FieldInfo fieldInfo : classInfo.getDeclaredFieldInfo()) {
+            collectReferences(fieldInfo.getTypeSignatureOrTypeDescriptor(), names);
+            collectAnnotationReferences(fieldInfo.getAnnotationInfo(), names);
+        }
+
+        for (MethodInfo methodInfo : classInfo.getDeclaredMethodInfo()) {
+            MethodTypeSignature methodSignature = methodInfo.getTypeSignatureOrTypeDescriptor();
+            collectReferences(methodSignature.getResultType(), names);
+            collectTypeParameterReferences(methodSignature.getTypeParameters(), names);
+            collectAnnotationReferences(methodInfo.getAnnotationInfo(), names);
+
+            for (MethodParameterInfo parameterInfo : methodInfo.getParameterInfo()) {
+                collectReferences(parameterInfo.getTypeSignatureOrTypeDescriptor(), names);
+                collectAnnotationReferences(parameterInfo.getAnnotationInfo(), names);
+            }
+        }
+    }
+
+    private static void collectReferences(TypeSignature typeSignature, Set<String> names) {
+        if (typeSignature instanceof ClassRefTypeSignature) {
+            ClassRefTypeSignature classRef = (ClassRefTypeSignature) typeSignature;
+            names.add(classRef.getFullyQualifiedClassName());
+
+            collectTypeArgumentReferences(classRef.getTypeArguments(), names);
+            classRef.getSuffixTypeArguments().forEach(arguments -> collectTypeArgumentReferences(arguments, names));
+        } else if (typeSignature instanceof ArrayTypeSignature) {
+            collectReferences(((ArrayTypeSignature) typeSignature).getElementTypeSignature(), names);
+        }
+        // base types and type variables (their bounds are collected with the type parameters) are skipped
+    }
+
+    private static void collectTypeArgumentReferences(List<TypeArgument> typeArguments, Set<String> names) {
+        for (TypeArgument typeArgument : typeArguments) {
+            // null for unbounded wildcard
+            collectReferences(typeArgument.getTypeSignature(), names);
+        }
+    }
+
+    private static void collectTypeParameterReferences(List<TypeParameter> typeParameters, Set<String> names) {
+        for (TypeParameter typeParameter : typeParameters) {
+            collectReferences(typeParameter.getClassBound(), names);
+
+            for (ReferenceTypeSignature bound : typeParameter.getInterfaceBounds()) {
+                collectReferences(bound, names);
+            }
+        }
+    }
+
+    private static void collectAnnotationReferences(AnnotationInfoList annotations, Set<String> names) {
+        for (AnnotationInfo annotation : annotations) {
+            for (AnnotationParameterValue parameterValue : annotation.getParameterValues()) {
+                collectAnnotationValueReferences(parameterValue.getValue(), names);
+            }
+        }
+    }
+
+    private static void collectAnnotationValueReferences(Object value, Set<String> names) {
+        if (value instanceof AnnotationClassRef) {
+            // e.g. @Schema(implementation = Model.class)
+            names.add(((AnnotationClassRef) value).getName());
+        } else if (value instanceof AnnotationInfo) {
+            for (AnnotationParameterValue parameterValue : ((AnnotationInfo) value).getParameterValues()) {
+                collectAnnotationValueReferences(parameterValue.getValue(), names);
+            }
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                collectAnnotationValueReferences(element, names);
+            }
+        }
+    }
+}
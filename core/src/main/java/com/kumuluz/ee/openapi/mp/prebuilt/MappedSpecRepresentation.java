@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.prebuilt;
+
+import com.kumuluz.ee.openapi.mp.util.EntityTagUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Representation of the OpenAPI document generated at build time and memory-mapped from a file. Content is read by
+ * the operating system on demand and is never copied to the heap.
+ *
+ * @since 2.0.0
+ */
+public final class MappedSpecRepresentation {
+
+    private final MappedByteBuffer content;
+    private final String mimeType;
+    private final String entityTag;
+    private final long lastModified;
+
+    MappedSpecRepresentation(MappedByteBuffer content, String mimeType, long lastModified) {
+        this.content = content;
+        this.mimeType = mimeType;
+        this.entityTag = EntityTagUtil.computeEntityTag(mimeType, content);
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Returns a read-only view of the content. Every call returns a new view with its own position, so the views can
+     * be consumed by concurrent requests.
+     *
+     * @return content of the representation
+     */
+    public ByteBuffer getContent() {
+        return content.asReadOnlyBuffer();
+    }
+
+    void load() {
+        content.load();
+    }
+
+    public int getContentLength() {
+        return content.capacity();
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Strong entity tag of this representation, computed from its content and media type.
+     *
+     * @return quoted entity tag
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * Time when the representation was loaded, truncated to seconds.
+     *
+     * @return milliseconds since epoch
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.prebuilt;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.mp.utils.PrebuiltFingerprint;
+import io.smallrye.openapi.api.OpenApiDocument;
+import io.smallrye.openapi.runtime.OpenApiProcessor;
+import io.smallrye.openapi.runtime.OpenApiStaticFile;
+import io.smallrye.openapi.runtime.io.Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarFile;
+import java.util.logging.Logger;
+
+/**
+ * OpenAPI document generated at build time by the OpenAPI Maven plugin and packaged with the application. Packaged
+ * files are memory-mapped, extracting them to temporary files first when the application runs from a JAR, and are
+ * served without scanning the application or building the document model.
+ * <p>
+ * The plugin packages a marker with the fingerprints of the classes, static files, configuration files and scanned
+ * libraries the document was generated from. The document is served when the marker is present and all fingerprints
+ * match the application, otherwise the document is generated at startup. Packaged documents without a marker are only
+ * served when explicitly enabled.
+ *
+ * @since 2.0.0
+ */
+public class PrebuiltSpec {
+
+    public static final String RESOURCE_DIRECTORY = "META-INF/kumuluzee/openapi/generated/";
+
+    private static final String MARKER_RESOURCE = RESOURCE_DIRECTORY + PrebuiltFingerprint.MARKER_FILE;
+
+    private static final Logger LOG = Logger.getLogger(PrebuiltSpec.class.getName());
+
+    private static volatile PrebuiltSpec instance;
+
+    private final Map<SpecFormat, MappedSpecRepresentation> representations;
+
+    private PrebuiltSpec(Map<SpecFormat, MappedSpecRepresentation> representations) {
+        this.representations = representations;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.prebuilt.enabled").orElse(true);
+    }
+
+    private static boolean isExplicitlyEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.prebuilt.enabled").orElse(false);
+    }
+
+    /**
+     * @return loaded document or null if no document was loaded
+     */
+    public static PrebuiltSpec getInstance() {
+        return instance;
+    }
+
+    /**
+     * Loads the packaged document files and memory-maps them.
+     *
+     * @param classLoader class loader used to locate the packaged files
+     * @return loaded document or null if the application does not contain a packaged document or the packaged document
+     * does not match the application
+     * @throws IOException if the packaged files could not be mapped
+     */
+    public static PrebuiltSpec load(ClassLoader classLoader) throws IOException {
+        URL marker = classLoader.getResource(MARKER_RESOURCE);
+        if (marker == null) {
+            // without a marker the document can not be verified
+            if (!isExplicitlyEnabled()) {
+                return null;
+            }
+        } else if (!isCurrent(marker)) {
+            return null;
+        }
+
+        // HTTP dates have a resolution of one second
+        long loadedAt = System.currentTimeMillis() / 1000 * 1000;
+
+        Map<SpecFormat, MappedSpecRepresentation> representations = new EnumMap<>(SpecFormat.class);
+        for (SpecFormat format : new SpecFormat[]{SpecFormat.YAML, SpecFormat.JSON}) {
+            URL resource = classLoader.getResource(RESOURCE_DIRECTORY + getFileName(format));
+            if (resource != null) {
+                representations.put(format, new MappedSpecRepresentation(map(resource, format), format.getMimeType(),
+                        loadedAt));
+            }
+        }
+
+        if (representations.isEmpty()) {
+            LOG.warning("OpenAPI document generated at build time not found in " + RESOURCE_DIRECTORY +
+                    ", generating the document at startup.");
+            return null;
+        }
+
+        LOG.info("Serving OpenAPI document generated at build time.");
+
+        instance = new PrebuiltSpec(Collections.unmodifiableMap(representations));
+        return instance;
+    }
+
+    /**
+     * Returns the packaged representation in the given format.
+     *
+     * @param format requested format
+     * @return packaged representation or null if the document was not packaged in the given format
+     */
+    public MappedSpecRepresentation get(SpecFormat format) {
+        return representations.get(format);
+    }
+
+    /**
+     * Loads the content of the mapped files into physical memory, so that the first requests do not wait for it to be
+     * read from disk.
+     */
+    public void load() {
+        representations.values().forEach(MappedSpecRepresentation::load);
+    }
+
+    /**
+     * Parses the packaged document into {@link OpenApiDocument#INSTANCE}, if not already set. Needed only for the
+     * representations which are not packaged, such as CBOR or document subsets. Filters are not applied again since
+     * the packaged document has already been filtered at build time.
+     *
+     * @throws IOException if the packaged document could not be parsed
+     */
+    public synchronized void initializeDocument() throws IOException {
+        if (OpenApiDocument.INSTANCE.isSet()) {
+            return;
+        }
+
+        MappedSpecRepresentation json = representations.get(SpecFormat.JSON);
+        MappedSpecRepresentation source = (json != null) ? json : representations.get(SpecFormat.YAML);
+        Format format = (json != null) ? Format.JSON : Format.YAML;
+
+        try (OpenApiStaticFile staticFile = new OpenApiStaticFile(
+                new ByteBufferBackedInputStream(source.getContent()), format)) {
+            OpenApiDocument.INSTANCE.set(OpenApiProcessor.modelFromStaticFile(staticFile));
+        }
+    }
+
+    /**
+     * Verifies the fingerprints in the marker against the application and the scanned libraries on the classpath.
+     */
+    private static boolean isCurrent(URL marker) throws IOException {
+        String actual = computeFingerprint(marker);
+        if (actual == null) {
+            LOG.warning("Could not verify the fingerprint of the OpenAPI document generated at build time, location " +
+                    "not supported: " + marker + ". Generating the document at startup.");
+            return false;
+        }
+
+        Properties properties;
+        try (InputStream is = marker.openStream()) {
+            properties = PrebuiltFingerprint.read(is);
+        }
+
+        if (!actual.equals(properties.getProperty(PrebuiltFingerprint.FINGERPRINT_PROPERTY)) ||
+                !areLibrariesCurrent(properties)) {
+            LOG.warning("OpenAPI document generated at build time does not match the application, generating the " +
+                    "document at startup.");
+            return false;
+        }
+
+        return true;
+    }
+
+    private static boolean areLibrariesCurrent(Properties properties) throws IOException {
+        for (String property : properties.stringPropertyNames()) {
+            if (property.startsWith(PrebuiltFingerprint.LIBRARY_PROPERTY_PREFIX)) {
+                String library = property.substring(PrebuiltFingerprint.LIBRARY_PROPERTY_PREFIX.length());
+                if (!properties.getProperty(property).equals(computeLibraryFingerprint(library))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the fingerprint of the library JAR with the given file name on the classpath.
+     *
+     * @return fingerprint or null if the library is not on the classpath
+     */
+    private static String computeLibraryFingerprint(String fileName) throws IOException {
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            File file = new File(entry);
+            if (file.getName().equals(fileName) && file.isFile()) {
+                try (JarFile jarFile = new JarFile(file)) {
+                    return PrebuiltFingerprint.compute(jarFile, "");
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static String computeFingerprint(URL marker) throws IOException {
+        if ("file".equals(marker.getProtocol())) {
+            // running exploded, classes directory contains META-INF/kumuluzee/openapi/generated/openapi.properties
+            Path root;
+            try {
+                root = Paths.get(marker.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid location of the generated OpenAPI document: " + marker, e);
+            }
+            for (int i = 0; i < MARKER_RESOURCE.split("/").length && root != null; i++) {
+                root = root.getParent();
+            }
+
+            return (root == null) ? null : PrebuiltFingerprint.compute(root);
+        }
+
+        URLConnection connection = marker.openConnection();
+        if (connection instanceof JarURLConnection) {
+            // checksums are read from the JAR directory, the classes are not read
+            JarURLConnection jarConnection = (JarURLConnection) connection;
+            String entryName = jarConnection.getEntryName();
+            String prefix = entryName.substring(0, entryName.length() - MARKER_RESOURCE.length());
+
+            return PrebuiltFingerprint.compute(jarConnection.getJarFile(), prefix);
+        }
+
+        return null;
+    }
+
+    private static String getFileName(SpecFormat format) {
+        return (format == SpecFormat.JSON) ? "openapi.json" : "openapi.yaml";
+    }
+
+    private static MappedByteBuffer map(URL resource, SpecFormat format) throws IOException {
+        Path file;
+
+        if ("file".equals(resource.getProtocol())) {
+            // running exploded, map the packaged file directly
+            try {
+                file = Paths.get(resource.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid location of the generated OpenAPI document: " + resource, e);
+            }
+        } else {
+            file = Files.createTempFile("kumuluzee-openapi-", "-" + getFileName(format));
+            file.toFile().deleteOnExit();
+
+            try (InputStream is = resource.openStream()) {
+                Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.prewarm;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentationCache;
+import com.kumuluz.ee.openapi.mp.prebuilt.PrebuiltSpec;
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
+import com.kumuluz.ee.openapi.mp.util.SerializationUtil;
+import io.smallrye.openapi.api.OpenApiDocument;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Prepares the OpenAPI endpoint at startup, so that the first request does not pay for loading the serialization
+ * classes and serializing the document. Depending on the configuration, cached representations in every format are
+ * built, the document is serialized once in every format or the files generated at build time are loaded into memory.
+ * Pre-warming can run in a background thread, in which case requests arriving before it completes are served as usual.
+ *
+ * @since 2.0.0
+ */
+public class SpecPrewarmer {
+
+    private static final Logger LOG = Logger.getLogger(SpecPrewarmer.class.getName());
+
+    private static final SpecPrewarmer INSTANCE = new SpecPrewarmer();
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    private SpecPrewarmer() {
+    }
+
+    public static SpecPrewarmer getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.servlet.prewarm.enabled").orElse(true);
+    }
+
+    /**
+     * Pre-warms the endpoint, in a background thread if configured with the
+     * {@code kumuluzee.openapi-mp.servlet.prewarm.background} key. Readiness is signalled when done.
+     */
+    public void prewarm() {
+        if (ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.servlet.prewarm.background")
+                .orElse(false)) {
+            Thread thread = new Thread(this::run, "kumuluzee-openapi-prewarm");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            run();
+        }
+    }
+
+    /**
+     * Signals readiness without pre-warming, used when pre-warming is disabled.
+     */
+    public void skip() {
+        ready.complete(null);
+    }
+
+    /**
+     * @return true if the endpoint has been pre-warmed (or pre-warming is disabled)
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * @return future completed when the endpoint has been pre-warmed, completed exceptionally if pre-warming failed
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready.thenApply(v -> v);
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+
+        try {
+            PrebuiltSpec prebuiltSpec = PrebuiltSpec.getInstance();
+
+            if (prebuiltSpec != null) {
+                prebuiltSpec.load();
+            } else if (SpecRepresentationCache.isEnabled()) {
+                SpecRepresentationCache.getInstance().build(OpenApiDocument.INSTANCE.get());
+            } else {
+                // nothing is cached, serialize once to load and initialize the serializers
+                OpenAPI model = OpenApiDocument.INSTANCE.get();
+                for (SpecFormat format : SpecFormat.values()) {
+                    SerializationUtil.write(model, format, OutputStream.nullOutputStream());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.severe("Could not serialize the OpenAPI document: " + e.getMessage());
+            ready.completeExceptionally(e);
+            return;
+        }
+
+        long duration = System.nanoTime() - start;
+        StartupReport.getInstance().record(StartupReport.PHASE_SERIALIZATION, duration);
+
+        ready.complete(null);
+        LOG.info("OpenAPI endpoint ready in " + TimeUnit.NANOSECONDS.toMillis(duration) + " ms.");
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.startup;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Durations of the startup phases of the extension and sizes of the scanned application and the generated document.
+ * Phases are recorded in the order in which they run and are summarized in a single log line once the endpoint is
+ * ready. Phases which did not run (e.g. scanning when the document was generated at build time) are not recorded.
+ * Intermediate artifacts of the generation are tracked, so that it can be verified they are released afterwards.
+ *
+ * @since 2.0.0
+ */
+public class StartupReport {
+
+    public static final String PHASE_INDEX_LOAD = "index-load";
+    public static final String PHASE_SCAN = "scan";
+    public static final String PHASE_INDEX = "index";
+    public static final String PHASE_READER = "reader";
+    public static final String PHASE_STATIC_FILE = "static-file";
+    public static final String PHASE_ANNOTATIONS = "annotations";
+    /**
+     * Prefix of the filter phases, followed by the class name of the filter.
+     */
+    public static final String PHASE_FILTER_PREFIX = "filter:";
+    /**
+     * Initialization of the filtered document, applying the defaults and the configuration.
+     */
+    public static final String PHASE_INITIALIZE = "initialize";
+    public static final String PHASE_SERIALIZATION = "serialization";
+
+    public static final String COUNT_JARS_SCANNED = "jars-scanned";
+    public static final String COUNT_CLASSES_SCANNED = "classes-scanned";
+    public static final String COUNT_CLASSES_INDEXED = "classes-indexed";
+    public static final String COUNT_PATHS = "paths";
+    public static final String COUNT_OPERATIONS = "operations";
+    public static final String COUNT_SCHEMAS = "schemas";
+
+    public static final String ARTIFACT_SCAN_RESULT = "scan-result";
+    public static final String ARTIFACT_INDEX = "index";
+
+    private static final Logger LOG = Logger.getLogger(StartupReport.class.getName());
+
+    private static final StartupReport INSTANCE = new StartupReport();
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private final Map<String, WeakReference<Object>> artifacts = new LinkedHashMap<>();
+
+    private StartupReport() {
+    }
+
+    public static StartupReport getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the phase and records its duration.
+     *
+     * @param phase  name of the phase
+     * @param action phase
+     * @param <T>    result type
+     * @return result of the phase
+     */
+    public <T> T time(String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs the phase and records its duration only if it returned a result, e.g. a lookup which may find nothing.
+     *
+     * @param phase  name of the phase
+     * @param action phase
+     * @param <T>    result type
+     * @return result of the phase
+     */
+    public <T> T timeIfPresent(String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        T result = null;
+        boolean completed = false;
+        try {
+            result = action.get();
+            completed = true;
+            return result;
+        } finally {
+            // lookups which found nothing are not recorded, failed lookups are
+            if (result != null || !completed) {
+                record(phase, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Adds the duration to the phase.
+     *
+     * @param phase    name of the phase
+     * @param duration duration in nanoseconds
+     */
+    public synchronized void record(String phase, long duration) {
+        phases.merge(phase, duration, Long::sum);
+    }
+
+    public synchronized void count(String name, long value) {
+        counts.put(name, value);
+    }
+
+    /**
+     * Tracks an intermediate artifact of the document generation (e.g. the classpath scan result or the annotation
+     * index), which is expected to become unreachable once the document is generated. Artifacts are tracked with weak
+     * references and are not kept in memory by the report.
+     *
+     * @param name     name of the artifact
+     * @param artifact artifact
+     */
+    public synchronized void trackRelease(String name, Object artifact) {
+        artifacts.put(name, new WeakReference<>(artifact));
+    }
+
+    /**
+     * Returns the tracked artifacts which have not been garbage collected yet. Artifacts which are no longer reachable
+     * are only reported as released after the garbage collector has run.
+     *
+     * @return names of the tracked artifacts still in memory
+     */
+    public synchronized List<String> getRetainedArtifacts() {
+        return artifacts.entrySet().stream()
+                .filter(e -> e.getValue().get() != null)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records the numbers of paths, operations and schemas of the document.
+     *
+     * @param openAPI document
+     */
+    public void countDocument(OpenAPI openAPI) {
+        long paths = 0;
+        long operations = 0;
+        if (openAPI.getPaths() != null && openAPI.getPaths().getPathItems() != null) {
+            Map<String, PathItem> pathItems = openAPI.getPaths().getPathItems();
+            paths = pathItems.size();
+            operations = pathItems.values().stream()
+                    .mapToLong(pathItem -> pathItem.getOperations().size())
+                    .sum();
+        }
+
+        long schemas = 0;
+        if (openAPI.getComponents() != null && openAPI.getComponents().getSchemas() != null) {
+            schemas = openAPI.getComponents().getSchemas().size();
+        }
+
+        count(COUNT_PATHS, paths);
+        count(COUNT_OPERATIONS, operations);
+        count(COUNT_SCHEMAS, schemas);
+    }
+
+    /**
+     * @return durations of the recorded phases, in the order in which they were first recorded
+     */
+    public synchronized Map<String, Duration> getPhases() {
+        Map<String, Duration> result = new LinkedHashMap<>();
+        phases.forEach((phase, duration) -> result.put(phase, Duration.ofNanos(duration)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return recorded counts
+     */
+    public synchronized Map<String, Long> getCounts() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+    }
+
+    /**
+     * @return sum of the durations of the recorded phases
+     */
+    public synchronized Duration getTotal() {
+        return Duration.ofNanos(phases.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * Logs the summary of the recorded phases and counts.
+     */
+    public void log() {
+        Map<String, Duration> phases = getPhases();
+        Map<String, Long> counts = getCounts();
+
+        StringBuilder sb = new StringBuilder("OpenAPI extension startup took ")
+                .append(getTotal().toMillis()).append(" ms");
+        if (!phases.isEmpty()) {
+            sb.append(" (").append(phases.entrySet().stream()
+                    .map(e -> e.getKey() + " " + e.getValue().toMillis() + " ms")
+                    .collect(Collectors.joining(", "))).append(")");
+        }
+        if (!counts.isEmpty()) {
+            sb.append(": ").append(counts.entrySet().stream()
+                    .map(e -> e.getKey() + " " + e.getValue())
+                    .collect(Collectors.joining(", ")));
+        }
+        sb.append('.');
+
+        LOG.info(sb.toString());
+    }
+}
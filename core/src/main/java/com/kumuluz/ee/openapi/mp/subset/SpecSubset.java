@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.subset;
+
+import java.util.Objects;
+
+/**
+ * Selection of operations served as a standalone OpenAPI document. Operations are selected by tag and/or by path
+ * prefix; when both are set, an operation has to match both.
+ *
+ * @since 2.0.0
+ */
+public final class SpecSubset {
+
+    private final String tag;
+    private final String pathPrefix;
+
+    private SpecSubset(String tag, String pathPrefix) {
+        this.tag = tag;
+        this.pathPrefix = pathPrefix;
+    }
+
+    /**
+     * Creates subset from request parameters.
+     *
+     * @param tag        tag of the operations, may be null
+     * @param pathPrefix path prefix of the operations, may be null
+     * @return subset or null if neither of parameters is set
+     */
+    public static SpecSubset of(String tag, String pathPrefix) {
+        if (tag != null && tag.isEmpty()) {
+            tag = null;
+        }
+        if (pathPrefix != null) {
+            // trailing slash does not change the selection
+            while (pathPrefix.endsWith("/")) {
+                pathPrefix = pathPrefix.substring(0, pathPrefix.length() - 1);
+            }
+            if (!pathPrefix.isEmpty() && !pathPrefix.startsWith("/")) {
+                pathPrefix = "/" + pathPrefix;
+            }
+        }
+
+        if (tag == null && pathPrefix == null) {
+            return null;
+        }
+
+        return new SpecSubset(tag, pathPrefix);
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public String getPathPrefix() {
+        return pathPrefix;
+    }
+
+    boolean matchesPath(String path) {
+        if (pathPrefix == null || pathPrefix.isEmpty()) {
+            return true;
+        }
+
+        // prefix has to end on a segment boundary, /v2/orders does not match /v2/orders-archive
+        return path.equals(pathPrefix) || path.startsWith(pathPrefix + "/");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SpecSubset that = (SpecSubset) o;
+        return Objects.equals(tag, that.tag) && Objects.equals(pathPrefix, that.pathPrefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tag, pathPrefix);
+    }
+
+    @Override
+    public String toString() {
+        return "SpecSubset{tag=" + tag + ", pathPrefix=" + pathPrefix + "}";
+    }
+}
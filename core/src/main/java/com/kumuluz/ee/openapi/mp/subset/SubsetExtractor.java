@@ -0,0 +1,296 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.subset;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.smallrye.openapi.runtime.io.JsonUtil;
+import io.smallrye.openapi.runtime.io.callback.CallbackWriter;
+import io.smallrye.openapi.runtime.io.example.ExampleWriter;
+import io.smallrye.openapi.runtime.io.header.HeaderWriter;
+import io.smallrye.openapi.runtime.io.link.LinkWriter;
+import io.smallrye.openapi.runtime.io.parameter.ParameterWriter;
+import io.smallrye.openapi.runtime.io.paths.PathsWriter;
+import io.smallrye.openapi.runtime.io.requestbody.RequestBodyWriter;
+import io.smallrye.openapi.runtime.io.response.ResponseWriter;
+import io.smallrye.openapi.runtime.io.schema.SchemaWriter;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts a self-contained document from the OpenAPI document model. The extracted document contains only the
+ * operations matching the {@link SpecSubset} and the components they reference, directly or transitively. Only the
+ * containers of the selected elements are created, operations, components and other model elements are shared with the
+ * source document, neither of them should be modified.
+ * <p>
+ * References are collected from the selected path items and components, which are converted to JSON one at a time.
+ * The document is never converted as a whole.
+ *
+ * @since 2.0.0
+ */
+public class SubsetExtractor {
+
+    private static final String COMPONENTS_PREFIX = "#/components/";
+
+    public static OpenAPI extract(OpenAPI document, SpecSubset subset) {
+        OpenAPI result = OASFactory.createOpenAPI();
+        result.setOpenapi(document.getOpenapi());
+        result.setInfo(document.getInfo());
+        result.setExternalDocs(document.getExternalDocs());
+        result.setServers(document.getServers());
+        result.setSecurity(document.getSecurity());
+        result.setExtensions(document.getExtensions());
+
+        Set<String> usedTags = new HashSet<>();
+        if (document.getPaths() != null) {
+            result.setPaths(extractPaths(document.getPaths(), subset, usedTags));
+        }
+
+        if (document.getTags() != null) {
+            result.setTags(document.getTags().stream()
+                    .filter(tag -> usedTags.contains(tag.getName()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (document.getComponents() != null) {
+            result.setComponents(extractComponents(document.getComponents(), result));
+        }
+
+        return result;
+    }
+
+    private static Paths extractPaths(Paths paths, SpecSubset subset, Set<String> usedTags) {
+        Paths result = OASFactory.createPaths();
+        result.setExtensions(paths.getExtensions());
+
+        if (paths.getPathItems() == null) {
+            return result;
+        }
+
+        for (Map.Entry<String, PathItem> pathItem : paths.getPathItems().entrySet()) {
+            if (!subset.matchesPath(pathItem.getKey())) {
+                continue;
+            }
+
+            PathItem source = pathItem.getValue();
+            PathItem filteredItem = OASFactory.createPathItem();
+            filteredItem.setRef(source.getRef());
+            filteredItem.setSummary(source.getSummary());
+            filteredItem.setDescription(source.getDescription());
+            filteredItem.setServers(source.getServers());
+            filteredItem.setParameters(source.getParameters());
+            filteredItem.setExtensions(source.getExtensions());
+
+            boolean hasOperations = false;
+            for (Map.Entry<PathItem.HttpMethod, Operation> operation : source.getOperations().entrySet()) {
+                List<String> tags = operation.getValue().getTags();
+                if (subset.getTag() == null || (tags != null && tags.contains(subset.getTag()))) {
+                    filteredItem.setOperation(operation.getKey(), operation.getValue());
+                    if (tags != null) {
+                        usedTags.addAll(tags);
+                    }
+                    hasOperations = true;
+                }
+            }
+
+            if (hasOperations || (subset.getTag() == null && source.getRef() != null)) {
+                result.addPathItem(pathItem.getKey(), filteredItem);
+            }
+        }
+
+        return result;
+    }
+
+    private static Components extractComponents(Components components, OpenAPI document) {
+        // references in the form of "type/name", e.g. "schemas/Pet"
+        Set<String> referenced = new HashSet<>();
+        Set<String> usedSecuritySchemes = new HashSet<>();
+        Deque<JsonNode> pending = new ArrayDeque<>();
+
+        if (document.getSecurity() != null) {
+            for (SecurityRequirement requirement : document.getSecurity()) {
+                if (requirement.getSchemes() != null) {
+                    usedSecuritySchemes.addAll(requirement.getSchemes().keySet());
+                }
+            }
+        }
+
+        if (document.getPaths() != null && document.getPaths().getPathItems() != null) {
+            document.getPaths().getPathItems().forEach((name, pathItem) -> {
+                ObjectNode node = JsonUtil.objectNode();
+                PathsWriter.writePathItem(node, pathItem, name);
+                pending.add(node);
+            });
+        }
+
+        while (!pending.isEmpty()) {
+            collectReferences(pending.poll(), referenced, usedSecuritySchemes, components, pending);
+        }
+
+        Components result = OASFactory.createComponents();
+        result.setSchemas(filter(components.getSchemas(), "schemas", referenced));
+        result.setResponses(filter(components.getResponses(), "responses", referenced));
+        result.setParameters(filter(components.getParameters(), "parameters", referenced));
+        result.setExamples(filter(components.getExamples(), "examples", referenced));
+        result.setRequestBodies(filter(components.getRequestBodies(), "requestBodies", referenced));
+        result.setHeaders(filter(components.getHeaders(), "headers", referenced));
+        result.setLinks(filter(components.getLinks(), "links", referenced));
+        result.setCallbacks(filter(components.getCallbacks(), "callbacks", referenced));
+        if (components.getSecuritySchemes() != null) {
+            result.setSecuritySchemes(filter(components.getSecuritySchemes(), usedSecuritySchemes::contains));
+        }
+        result.setExtensions(components.getExtensions());
+
+        return result;
+    }
+
+    private static <T> Map<String, T> filter(Map<String, T> entries, String type, Set<String> referenced) {
+        return (entries == null) ? null : filter(entries, name -> referenced.contains(type + "/" + name));
+    }
+
+    private static <T> Map<String, T> filter(Map<String, T> entries, Function<String, Boolean> used) {
+        Map<String, T> result = new LinkedHashMap<>();
+        entries.forEach((name, value) -> {
+            if (used.apply(name)) {
+                result.put(name, value);
+            }
+        });
+
+        // types without used entries are omitted
+        return result.isEmpty() ? null : result;
+    }
+
+    private static void collectReferences(JsonNode node, Set<String> referenced, Set<String> usedSecuritySchemes,
+                                          Components components, Deque<JsonNode> pending) {
+        if (node.isArray()) {
+            node.forEach(element -> collectReferences(element, referenced, usedSecuritySchemes, components, pending));
+            return;
+        }
+
+        if (!node.isObject()) {
+            return;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+
+            if (field.getKey().equals("$ref") && value.isTextual()) {
+                addReference(value.asText(), referenced, components, pending);
+                continue;
+            }
+
+            if (field.getKey().equals("mapping") && value.isObject()) {
+                // discriminator mapping values may reference schemas
+                value.forEach(mapping -> {
+                    if (mapping.isTextual()) {
+                        addReference(mapping.asText(), referenced, components, pending);
+                    }
+                });
+            } else if (field.getKey().equals("security") && value.isArray()) {
+                value.forEach(requirement -> requirement.fieldNames().forEachRemaining(usedSecuritySchemes::add));
+            }
+
+            collectReferences(value, referenced, usedSecuritySchemes, components, pending);
+        }
+    }
+
+    private static void addReference(String ref, Set<String> referenced, Components components,
+                                     Deque<JsonNode> pending) {
+        if (!ref.startsWith(COMPONENTS_PREFIX)) {
+            return;
+        }
+
+        String[] pointer = ref.substring(COMPONENTS_PREFIX.length()).split("/", 2);
+        if (pointer.length != 2) {
+            return;
+        }
+
+        // unescape JSON pointer
+        String name = pointer[1].replace("~1", "/").replace("~0", "~");
+        if (referenced.add(pointer[0] + "/" + name)) {
+            JsonNode component = toNode(components, pointer[0], name);
+            if (component != null) {
+                pending.add(component);
+            }
+        }
+    }
+
+    /**
+     * Converts a single component to JSON, so that its references can be collected.
+     *
+     * @return component or null if the document does not contain it
+     */
+    private static JsonNode toNode(Components components, String type, String name) {
+        switch (type) {
+            case "schemas":
+                return toNode(components.getSchemas(), type, name, SchemaWriter::writeSchemas);
+            case "responses":
+                return toNode(components.getResponses(), type, name, ResponseWriter::writeAPIResponses);
+            case "parameters":
+                return toNode(components.getParameters(), type, name, ParameterWriter::writeParameters);
+            case "examples":
+                return toNode(components.getExamples(), type, name, ExampleWriter::writeExamples);
+            case "requestBodies":
+                return toNode(components.getRequestBodies(), type, name, RequestBodyWriter::writeRequestBodies);
+            case "headers":
+                return toNode(components.getHeaders(), type, name, HeaderWriter::writeHeaders);
+            case "links":
+                return toNode(components.getLinks(), type, name, LinkWriter::writeLinks);
+            case "callbacks":
+                return toNode(components.getCallbacks(), type, name, CallbackWriter::writeCallbacks);
+            default:
+                return null;
+        }
+    }
+
+    private static <T> JsonNode toNode(Map<String, T> entries, String type, String name,
+                                       BiConsumer<ObjectNode, Map<String, T>> writer) {
+        if (entries == null || !entries.containsKey(name)) {
+            return null;
+        }
+
+        // component writers create a field named by the type, containing the written entries
+        ObjectNode node = JsonUtil.objectNode();
+        writer.accept(node, Collections.singletonMap(name, entries.get(name)));
+        return node.path(type);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.util;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Utility class for evaluating conditional GET requests (If-None-Match and If-Modified-Since headers).
+ *
+ * @since 2.0.0
+ */
+public class ConditionalRequestUtil {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Checks whether the client already holds the current representation. If-Modified-Since is only evaluated when
+     * the request does not contain the If-None-Match header.
+     *
+     * @param req          request
+     * @param entityTag    quoted entity tag of the current representation
+     * @param lastModified last modification time of the current representation in milliseconds
+     * @return true if the response should be 304 Not Modified
+     */
+    public static boolean isNotModified(HttpServletRequest req, String entityTag, long lastModified) {
+
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesEntityTag(ifNoneMatch, entityTag);
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            // invalid date, ignore the header
+            return false;
+        }
+
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    private static boolean matchesEntityTag(String ifNoneMatch, String entityTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+
+            if (candidate.equals("*")) {
+                return true;
+            }
+
+            // If-None-Match uses the weak comparison function
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+
+            if (candidate.equals(entityTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.util;
+
+import com.kumuluz.ee.openapi.mp.cache.ContentEncoding;
+
+import java.util.Collection;
+
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.QUALITY_MAX;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.indexOf;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.parseQuality;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.skipWhitespace;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.trimTrailingWhitespace;
+
+/**
+ * Utility class for Accept-Encoding header parsing. The header is parsed in a single pass without creating
+ * intermediate strings or collections.
+ *
+ * @since 2.0.0
+ */
+public class ContentEncodingUtil {
+
+    // quality of codings which are not listed in the header
+    private static final int NOT_LISTED = -1;
+
+    /**
+     * Selects the content coding with the highest quality value among the available ones. Compressed codings are
+     * preferred over identity on equal quality, gzip is preferred over deflate.
+     *
+     * @param header    value of the Accept-Encoding header, may be null
+     * @param available available content codings
+     * @return selected content coding, {@link ContentEncoding#IDENTITY} if no other coding is acceptable
+     */
+    public static ContentEncoding negotiate(String header, Collection<ContentEncoding> available) {
+
+        if (header == null || header.isEmpty()) {
+            return ContentEncoding.IDENTITY;
+        }
+
+        // qualities in thousandths, kept in local variables since the parser should not allocate
+        int identityQuality = NOT_LISTED, gzipQuality = NOT_LISTED, deflateQuality = NOT_LISTED;
+        int wildcardQuality = NOT_LISTED;
+
+        int length = header.length();
+        int pos = 0;
+
+        while (pos < length) {
+            int elementEnd = indexOf(header, ',', pos, length);
+
+            int codingStart = skipWhitespace(header, pos, elementEnd);
+            int codingEnd = indexOf(header, ';', codingStart, elementEnd);
+            // invalid quality values refuse the coding
+            int quality = Math.max(parseQuality(header, codingEnd, elementEnd), 0);
+            codingEnd = trimTrailingWhitespace(header, codingStart, codingEnd);
+
+            if (matches(header, codingStart, codingEnd, "*")) {
+                wildcardQuality = Math.max(wildcardQuality, quality);
+            } else if (matches(header, codingStart, codingEnd, ContentEncoding.GZIP.getToken()) ||
+                    matches(header, codingStart, codingEnd, "x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (matches(header, codingStart, codingEnd, ContentEncoding.DEFLATE.getToken())) {
+                deflateQuality = Math.max(deflateQuality, quality);
+            } else if (matches(header, codingStart, codingEnd, ContentEncoding.IDENTITY.getToken())) {
+                identityQuality = Math.max(identityQuality, quality);
+            }
+
+            pos = elementEnd + 1;
+        }
+
+        ContentEncoding selected = null;
+        int selectedQuality = 0;
+
+        int quality = quality(gzipQuality, wildcardQuality);
+        if (quality > selectedQuality && available.contains(ContentEncoding.GZIP)) {
+            selected = ContentEncoding.GZIP;
+            selectedQuality = quality;
+        }
+        quality = quality(deflateQuality, wildcardQuality);
+        if (quality > selectedQuality && available.contains(ContentEncoding.DEFLATE)) {
+            selected = ContentEncoding.DEFLATE;
+            selectedQuality = quality;
+        }
+
+        // identity is acceptable by default unless refused explicitly or by wildcard
+        quality = quality(identityQuality, (wildcardQuality == NOT_LISTED) ? QUALITY_MAX : wildcardQuality);
+        if (selected == null || selectedQuality < quality) {
+            // identity is always served if nothing better is acceptable, even if the client refused it explicitly
+            return ContentEncoding.IDENTITY;
+        }
+
+        return selected;
+    }
+
+    private static int quality(int quality, int wildcardQuality) {
+        if (quality != NOT_LISTED) {
+            return quality;
+        }
+
+        return Math.max(wildcardQuality, 0);
+    }
+
+    /**
+     * Matches coding {@code header[start, end)} case-insensitively against the given token.
+     */
+    private static boolean matches(String header, int start, int end, String token) {
+        return end - start == token.length() && header.regionMatches(true, start, token, 0, token.length());
+    }
+}
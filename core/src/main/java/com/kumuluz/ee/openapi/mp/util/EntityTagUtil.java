@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.util;
+
+import com.kumuluz.ee.openapi.mp.utils.DigestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Utility class for computing entity tags of served representations.
+ *
+ * @since 2.0.0
+ */
+public class EntityTagUtil {
+
+    /**
+     * Computes a strong entity tag from the content and media type of a representation. Position of the content buffer
+     * is not modified.
+     *
+     * @param mimeType media type of the representation
+     * @param content  content of the representation
+     * @return quoted entity tag
+     */
+    public static String computeEntityTag(String mimeType, ByteBuffer content) {
+        MessageDigest digest = DigestUtils.sha256();
+        digest.update(mimeType.getBytes(StandardCharsets.UTF_8));
+        digest.update(content.duplicate());
+
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + "\"";
+    }
+}
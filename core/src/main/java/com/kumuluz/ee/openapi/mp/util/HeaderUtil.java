@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.util;
+
+/**
+ * Index-based helpers for parsing comma separated header values with parameters, such as Accept and Accept-Encoding,
+ * without allocating substrings. Positions are given as half-open ranges {@code [start, end)} of the header value.
+ *
+ * @since 2.0.0
+ */
+final class HeaderUtil {
+
+    static final int QUALITY_MAX = 1000;
+
+    private HeaderUtil() {
+    }
+
+    /**
+     * Parses the quality parameter from parameters {@code header[start, end)} of a list element, e.g. a media range.
+     *
+     * @return quality in thousandths, {@code 1000} if the parameter is not present or {@code -1} if it is invalid
+     */
+    static int parseQuality(String header, int start, int end) {
+
+        int pos = start;
+
+        while (pos < end) {
+            int paramStart = skipWhitespace(header, pos + 1, end);
+            int paramEnd = indexOf(header, ';', paramStart, end);
+
+            int nameEnd = indexOf(header, '=', paramStart, paramEnd);
+            if (nameEnd < paramEnd && trimTrailingWhitespace(header, paramStart, nameEnd) == paramStart + 1 &&
+                    (header.charAt(paramStart) == 'q' || header.charAt(paramStart) == 'Q')) {
+                int valueStart = skipWhitespace(header, nameEnd + 1, paramEnd);
+                int valueEnd = trimTrailingWhitespace(header, valueStart, paramEnd);
+
+                return parseQualityValue(header, valueStart, valueEnd);
+            }
+
+            pos = paramEnd;
+        }
+
+        return QUALITY_MAX;
+    }
+
+    /**
+     * Parses qvalue ({@code 0[.ddd]} or {@code 1[.000]}) into thousandths.
+     */
+    private static int parseQualityValue(String header, int start, int end) {
+
+        if (start >= end || end - start > 5) {
+            return -1;
+        }
+
+        char first = header.charAt(start);
+        if (first != '0' && first != '1') {
+            return -1;
+        }
+
+        int quality = (first - '0') * QUALITY_MAX;
+
+        if (start + 1 == end) {
+            return quality;
+        }
+
+        if (header.charAt(start + 1) != '.') {
+            return -1;
+        }
+
+        int multiplier = 100;
+        for (int i = start + 2; i < end; i++) {
+            char c = header.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            quality += (c - '0') * multiplier;
+            multiplier /= 10;
+        }
+
+        return (quality > QUALITY_MAX) ? -1 : quality;
+    }
+
+    static int indexOf(String header, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (header.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return end;
+    }
+
+    static int skipWhitespace(String header, int start, int end) {
+        while (start < end && isWhitespace(header.charAt(start))) {
+            start++;
+        }
+
+        return start;
+    }
+
+    static int trimTrailingWhitespace(String header, int start, int end) {
+        while (end > start && isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+
+        return end;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -20,85 +20,164 @@
  */
 package com.kumuluz.ee.openapi.mp.util;
 
-import io.smallrye.openapi.runtime.io.Format;
+import com.kumuluz.ee.openapi.mp.SpecFormat;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.indexOf;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.parseQuality;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.skipWhitespace;
+import static com.kumuluz.ee.openapi.mp.util.HeaderUtil.trimTrailingWhitespace;
 
 /**
  * Utility class for media type (Accept header) parsing.
+ * <p>
+ * The header is parsed in a single pass without creating intermediate collections. Since only a handful of distinct
+ * Accept headers is sent in practice, results are memoized per header value in a bounded concurrent map. Once the map
+ * is full, results of further headers are not memoized.
  *
  * @author Urban Malc
  * @since 2.0.0
  */
 public class MediaTypeUtil {
 
-    private static final List<String> KNOWN_HEADERS = Arrays.stream(Format.values())
-            .map(Format::getMimeType)
-            .collect(Collectors.toList());
+    private static final int CACHE_MAX_ENTRIES = 64;
+    private static final int CACHE_MAX_HEADER_LENGTH = 512;
+
+    private static final Optional<SpecFormat> NO_FORMAT = Optional.empty();
+    private static final Map<SpecFormat, Optional<SpecFormat>> RESULTS = new EnumMap<>(SpecFormat.class);
+    private static final Map<String, Optional<SpecFormat>> CACHE = new ConcurrentHashMap<>();
+
+    // specificity of the media range matching a format
+    private static final int MATCH_NONE = 0;
+    private static final int MATCH_ANY = 1;
+    private static final int MATCH_SUBTYPE_WILDCARD = 2;
+    private static final int MATCH_EXACT = 3;
+
+    static {
+        for (SpecFormat format : SpecFormat.values()) {
+            RESULTS.put(format, Optional.of(format));
+        }
+    }
 
-    public static Format parseMediaType(String headers) {
+    public static SpecFormat parseMediaType(String headers) {
 
         if (headers == null) {
             return null;
         }
 
-        List<MediaTypeTuple> parsedHeaders = new ArrayList<>();
+        Optional<SpecFormat> cached = CACHE.get(headers);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
 
-        for (String header : headers.split(",")) {
-            String[] headerElements = header.split(";");
+        SpecFormat format = negotiate(headers);
 
-            if (!KNOWN_HEADERS.contains(headerElements[0])) {
-                continue;
-            }
+        // unusually long headers are not cached, so that a few requests cannot occupy much memory; the size check is
+        // not atomic, concurrent misses can exceed the bound by the number of concurrent requests
+        if (headers.length() <= CACHE_MAX_HEADER_LENGTH && CACHE.size() < CACHE_MAX_ENTRIES) {
+            CACHE.putIfAbsent(headers, (format == null) ? NO_FORMAT : RESULTS.get(format));
+        }
+
+        return format;
+    }
+
+    /**
+     * Selects the format with the highest quality. Quality of a format is determined by the most specific media range
+     * matching it, as defined by RFC 7231, section 5.3.2. Formats not matched by any media range or with quality of
+     * {@code 0} are not acceptable. When multiple formats have the same quality, the format matched by the more
+     * specific media range (exact type over {@code type/*} over {@code *}{@code /*}) is preferred. Remaining ties are
+     * broken by preferring YAML over JSON and JSON over CBOR.
+     */
+    private static SpecFormat negotiate(String headers) {
+
+        // kept in local variables (one per negotiable format), since the parser should not allocate
+        int yamlMatch = MATCH_NONE, jsonMatch = MATCH_NONE, cborMatch = MATCH_NONE;
+        int yamlQuality = 0, jsonQuality = 0, cborQuality = 0;
+
+        int length = headers.length();
+        int pos = 0;
+
+        while (pos < length) {
+            int rangeEnd = indexOf(headers, ',', pos, length);
+
+            int typeStart = skipWhitespace(headers, pos, rangeEnd);
+            int typeEnd = indexOf(headers, ';', typeStart, rangeEnd);
+            int quality = parseQuality(headers, typeEnd, rangeEnd);
+            typeEnd = trimTrailingWhitespace(headers, typeStart, typeEnd);
+
+            if (quality >= 0 && typeEnd > typeStart) {
+                int match = match(headers, typeStart, typeEnd, SpecFormat.YAML.getMimeType());
+                if (match > yamlMatch) {
+                    yamlMatch = match;
+                    yamlQuality = quality;
+                }
+
+                match = match(headers, typeStart, typeEnd, SpecFormat.JSON.getMimeType());
+                if (match > jsonMatch) {
+                    jsonMatch = match;
+                    jsonQuality = quality;
+                }
 
-            double priority = 1.0;
-            for (String el : headerElements) {
-                if (el.startsWith("q=")) {
-                    priority = Double.parseDouble(el.substring(2));
+                match = match(headers, typeStart, typeEnd, SpecFormat.CBOR.getMimeType());
+                if (match > cborMatch) {
+                    cborMatch = match;
+                    cborQuality = quality;
                 }
             }
 
-            parsedHeaders.add(new MediaTypeTuple(headerElements[0], priority));
+            pos = rangeEnd + 1;
         }
 
-        if (parsedHeaders.size() == 0) {
-            return null;
+        SpecFormat format = null;
+        int bestQuality = 0, bestMatch = MATCH_NONE;
+
+        if (isPreferred(yamlQuality, yamlMatch, bestQuality, bestMatch)) {
+            format = SpecFormat.YAML;
+            bestQuality = yamlQuality;
+            bestMatch = yamlMatch;
+        }
+        if (isPreferred(jsonQuality, jsonMatch, bestQuality, bestMatch)) {
+            format = SpecFormat.JSON;
+            bestQuality = jsonQuality;
+            bestMatch = jsonMatch;
+        }
+        if (isPreferred(cborQuality, cborMatch, bestQuality, bestMatch)) {
+            format = SpecFormat.CBOR;
         }
 
-        List<MediaTypeTuple> primaryMediaTypes = new LinkedList<>();
-        primaryMediaTypes.add(parsedHeaders.get(0));
+        return format;
+    }
 
-        for (int i = 1; i < parsedHeaders.size(); i++) {
-            MediaTypeTuple currentMediaType = parsedHeaders.get(i);
+    private static boolean isPreferred(int quality, int match, int bestQuality, int bestMatch) {
+        return quality > bestQuality || (quality > 0 && quality == bestQuality && match > bestMatch);
+    }
 
-            if (Math.abs(currentMediaType.priority - primaryMediaTypes.get(0).priority) < 0.001) {
-                primaryMediaTypes.add(currentMediaType);
-            } else if (currentMediaType.priority > primaryMediaTypes.get(0).priority) {
-                primaryMediaTypes.clear();
-                primaryMediaTypes.add(currentMediaType);
-            }
-        }
+    /**
+     * Matches media range {@code headers[start, end)} against the given media type.
+     */
+    private static int match(String headers, int start, int end, String mediaType) {
 
-        if (primaryMediaTypes.stream().map(mt -> mt.mediaType).anyMatch(Format.YAML.getMimeType()::equals)) {
-            return Format.YAML;
-        } else if (primaryMediaTypes.stream().map(mt -> mt.mediaType).anyMatch(Format.JSON.getMimeType()::equals)) {
-            return Format.JSON;
-        } else {
-            return null;
+        int rangeLength = end - start;
+
+        if (rangeLength == 3 && headers.startsWith("*/*", start)) {
+            return MATCH_ANY;
         }
-    }
 
-    private static final class MediaTypeTuple {
-        private final String mediaType;
-        private final double priority;
+        int slash = mediaType.indexOf('/');
 
-        MediaTypeTuple(String mediaType, double priority) {
-            this.mediaType = mediaType;
-            this.priority = priority;
+        if (rangeLength == slash + 2 && headers.charAt(end - 1) == '*' && headers.charAt(end - 2) == '/' &&
+                headers.regionMatches(true, start, mediaType, 0, slash)) {
+            return MATCH_SUBTYPE_WILDCARD;
         }
+
+        if (rangeLength == mediaType.length() && headers.regionMatches(true, start, mediaType, 0, rangeLength)) {
+            return MATCH_EXACT;
+        }
+
+        return MATCH_NONE;
     }
 }
@@ -0,0 +1,241 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import io.smallrye.openapi.runtime.io.JsonUtil;
+import io.smallrye.openapi.runtime.io.callback.CallbackWriter;
+import io.smallrye.openapi.runtime.io.example.ExampleWriter;
+import io.smallrye.openapi.runtime.io.extension.ExtensionWriter;
+import io.smallrye.openapi.runtime.io.externaldocs.ExternalDocsWriter;
+import io.smallrye.openapi.runtime.io.header.HeaderWriter;
+import io.smallrye.openapi.runtime.io.info.InfoWriter;
+import io.smallrye.openapi.runtime.io.link.LinkWriter;
+import io.smallrye.openapi.runtime.io.parameter.ParameterWriter;
+import io.smallrye.openapi.runtime.io.paths.PathsWriter;
+import io.smallrye.openapi.runtime.io.requestbody.RequestBodyWriter;
+import io.smallrye.openapi.runtime.io.response.ResponseWriter;
+import io.smallrye.openapi.runtime.io.schema.SchemaWriter;
+import io.smallrye.openapi.runtime.io.securityrequirement.SecurityRequirementWriter;
+import io.smallrye.openapi.runtime.io.securityscheme.SecuritySchemeWriter;
+import io.smallrye.openapi.runtime.io.server.ServerWriter;
+import io.smallrye.openapi.runtime.io.tag.TagWriter;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Utility class for serializing the OpenAPI document directly to bytes. Produces the same text output as
+ * {@link io.smallrye.openapi.runtime.io.OpenApiSerializer} followed by a line separator, but writes UTF-8 encoded output
+ * to a stream instead of building a String. The document can also be written as compact JSON or CBOR, without the line
+ * separator.
+ *
+ * @since 2.0.0
+ */
+public class SerializationUtil {
+
+    // documents are written in parts, the output is flushed by the generator when its buffer is full
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory()
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+            .enable(YAMLGenerator.Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS))
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory())
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    // documents in the SmallRye formats were written with println, the trailing line separator is kept
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Writes the document to the output stream without converting it to a tree as a whole. Top-level sections, path
+     * items and components are converted and written one at a time, so that only the node being written is held in
+     * memory. Output is the same as when the tree of the whole document is written. The output stream is not closed.
+     *
+     * @param model        OpenAPI document
+     * @param format       output format
+     * @param outputStream output stream
+     * @throws IOException if the document could not be written
+     */
+    public static void write(OpenAPI model, SpecFormat format, OutputStream outputStream) throws IOException {
+        ObjectMapper mapper = getMapper(format);
+
+        try (JsonGenerator generator = createGenerator(mapper, format, outputStream)) {
+            NodeWriter writer = new NodeWriter(mapper, generator);
+
+            // same order of sections as DefinitionWriter
+            generator.writeStartObject();
+            writer.writeFields(node -> JsonUtil.stringProperty(node, "openapi", model.getOpenapi()));
+            writer.writeFields(node -> InfoWriter.writeInfo(node, model.getInfo()));
+            writer.writeFields(node -> ExternalDocsWriter.writeExternalDocumentation(node, model.getExternalDocs()));
+            writer.writeFields(node -> ServerWriter.writeServers(node, model.getServers()));
+            writer.writeFields(node -> SecurityRequirementWriter.writeSecurityRequirements(node, model.getSecurity()));
+            writer.writeFields(node -> TagWriter.writeTags(node, model.getTags()));
+            writePaths(writer, generator, model.getPaths());
+            writeComponents(writer, generator, model.getComponents());
+            writer.writeFields(node -> ExtensionWriter.writeExtensions(node, model));
+            generator.writeEndObject();
+        }
+
+        if (format == SpecFormat.YAML || format == SpecFormat.JSON) {
+            outputStream.write(LINE_SEPARATOR);
+        }
+    }
+
+    public static byte[] serialize(OpenAPI model, SpecFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(model, format, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static void writePaths(NodeWriter writer, JsonGenerator generator, Paths paths) throws IOException {
+        if (paths == null) {
+            return;
+        }
+
+        generator.writeObjectFieldStart("paths");
+        if (paths.getPathItems() != null) {
+            for (Map.Entry<String, PathItem> pathItem : paths.getPathItems().entrySet()) {
+                writer.writeFields(node -> PathsWriter.writePathItem(node, pathItem.getValue(), pathItem.getKey()));
+            }
+        }
+        writer.writeFields(node -> ExtensionWriter.writeExtensions(node, paths));
+        generator.writeEndObject();
+    }
+
+    private static void writeComponents(NodeWriter writer, JsonGenerator generator, Components components)
+            throws IOException {
+        if (components == null) {
+            return;
+        }
+
+        // same order of sections as ComponentsWriter
+        generator.writeObjectFieldStart("components");
+        writer.writeEntries("schemas", components.getSchemas(), SchemaWriter::writeSchemas);
+        writer.writeEntries("responses", components.getResponses(), ResponseWriter::writeAPIResponses);
+        writer.writeEntries("parameters", components.getParameters(), ParameterWriter::writeParameters);
+        writer.writeEntries("examples", components.getExamples(), ExampleWriter::writeExamples);
+        writer.writeEntries("requestBodies", components.getRequestBodies(), RequestBodyWriter::writeRequestBodies);
+        writer.writeEntries("headers", components.getHeaders(), HeaderWriter::writeHeaders);
+        writer.writeEntries("securitySchemes", components.getSecuritySchemes(),
+                SecuritySchemeWriter::writeSecuritySchemes);
+        writer.writeEntries("links", components.getLinks(), LinkWriter::writeLinks);
+        writer.writeEntries("callbacks", components.getCallbacks(), CallbackWriter::writeCallbacks);
+        writer.writeFields(node -> ExtensionWriter.writeExtensions(node, components));
+        generator.writeEndObject();
+    }
+
+    private static JsonGenerator createGenerator(ObjectMapper mapper, SpecFormat format, OutputStream outputStream)
+            throws IOException {
+        JsonGenerator generator = mapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == SpecFormat.JSON) {
+            generator.useDefaultPrettyPrinter();
+        }
+
+        return generator;
+    }
+
+    private static ObjectMapper getMapper(SpecFormat format) {
+        switch (format) {
+            case JSON:
+            case JSON_COMPACT:
+                return JSON_MAPPER;
+            case CBOR:
+                return CBOR_MAPPER;
+            default:
+                return YAML_MAPPER;
+        }
+    }
+
+    /**
+     * Converts parts of the document with the SmallRye writers into a reusable node and writes its fields to the
+     * generator.
+     */
+    private static final class NodeWriter {
+
+        private final ObjectMapper mapper;
+        private final JsonGenerator generator;
+        private final ObjectNode node = JsonUtil.objectNode();
+
+        NodeWriter(ObjectMapper mapper, JsonGenerator generator) {
+            this.mapper = mapper;
+            this.generator = generator;
+        }
+
+        /**
+         * Writes the fields created by the given writer into the current object.
+         */
+        void writeFields(Consumer<ObjectNode> writer) throws IOException {
+            writer.accept(node);
+            copyFields(node);
+            node.removeAll();
+        }
+
+        /**
+         * Writes the map as a field of the current object, one entry at a time. The given writer must create a field
+         * with the given name containing all entries of the map, as the SmallRye writers of components do.
+         */
+        <T> void writeEntries(String name, Map<String, T> entries, BiConsumer<ObjectNode, Map<String, T>> writer)
+                throws IOException {
+            if (entries == null) {
+                return;
+            }
+
+            generator.writeObjectFieldStart(name);
+            for (Map.Entry<String, T> entry : entries.entrySet()) {
+                writer.accept(node, Collections.singletonMap(entry.getKey(), entry.getValue()));
+                copyFields((ObjectNode) node.get(name));
+                node.removeAll();
+            }
+            generator.writeEndObject();
+        }
+
+        private void copyFields(ObjectNode fields) throws IOException {
+            Iterator<Map.Entry<String, JsonNode>> iterator = fields.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> field = iterator.next();
+                generator.writeFieldName(field.getKey());
+                mapper.writeTree(generator, field.getValue());
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
  */
 package com.kumuluz.ee.openapi;
 
+import com.fasterxml.jackson.dataformat.cbor.PackageVersion;
 import com.kumuluz.ee.testing.arquillian.spi.MavenDependencyAppender;
 
 import java.util.ArrayList;
@@ -48,6 +49,9 @@ public class DependencyAppender implements MavenDependencyAppender {
                 versionsBundle.getString("smallrye-open-api.version"));
         libs.add("io.github.classgraph:classgraph:" +
                 versionsBundle.getString("classgraph.version"));
+        // managed by the imported BOM, deployments use the version resolved for the tests
+        libs.add("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor:" +
+                PackageVersion.VERSION);
         libs.add("javax.xml.bind:jaxb-api:" +
                 versionsBundle.getString("jaxb-api.version"));
         libs.add("com.beust:jcommander:" +
@@ -129,4 +129,65 @@ public class AcceptHeaderTest extends Arquillian {
                 .statusCode(200)
                 .body("openapi", matchesPattern("3\\.\\d+\\.\\d+"));
     }
+
+    @Test
+    @RunAsClient
+    public void acceptQualityWithWhitespaceTest() {
+        given()
+                .noFilters()
+                .header("Accept", "application/yaml ; q=0.2 , Application/JSON ;q=0.9")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .contentType("application/json")
+                .body("openapi", matchesPattern("3\\.\\d+\\.\\d+"));
+    }
+
+    @Test
+    @RunAsClient
+    public void acceptWildcardTest() {
+        given()
+                .noFilters()
+                .header("Accept", "text/html, */*;q=0.8")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(isYaml());
+    }
+
+    @Test
+    @RunAsClient
+    public void acceptMostSpecificRangeTest() {
+        // yaml is excluded explicitly, json is preferred over cbor among the remaining formats
+        given()
+                .noFilters()
+                .header("Accept", "application/yaml;q=0, application/*")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .contentType("application/json")
+                .body("openapi", matchesPattern("3\\.\\d+\\.\\d+"));
+    }
+
+    @Test
+    @RunAsClient
+    public void acceptJsonWithWildcardTest() {
+        // default Accept header of axios, the explicitly listed format is preferred over the wildcard
+        given()
+                .noFilters()
+                .header("Accept", "application/json, text/plain, */*")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .contentType("application/json")
+                .body("openapi", matchesPattern("3\\.\\d+\\.\\d+"));
+    }
 }
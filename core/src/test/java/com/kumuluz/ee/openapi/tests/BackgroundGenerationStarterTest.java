@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.generation.BackgroundGeneration;
+import com.kumuluz.ee.openapi.mp.generation.BackgroundGenerationStarter;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test that {@link BackgroundGenerationStarter}, registered as a listener of the servlet context in the same way as by
+ * the extension, starts the background generation only after the Jetty server has started.
+ *
+ * @since 2.0.0
+ */
+public class BackgroundGenerationStarterTest {
+
+    @Test
+    public void generationStartsAfterStartupTest() throws Exception {
+        Server server = new Server(0);
+        ServletContextHandler contextHandler = new ServletContextHandler();
+        contextHandler.addEventListener(new BackgroundGenerationStarter());
+        server.setHandler(contextHandler);
+
+        AtomicReference<String> serverState = new AtomicReference<>();
+        AtomicReference<String> threadName = new AtomicReference<>();
+        BackgroundGeneration generation = BackgroundGeneration.getInstance();
+        generation.schedule(() -> {
+            serverState.set(server.getState());
+            threadName.set(Thread.currentThread().getName());
+        });
+
+        try {
+            server.start();
+
+            assertTrue(generation.await(10000), "Generation did not complete");
+            assertTrue(generation.isReady());
+            assertEquals(serverState.get(), Server.STARTED);
+            assertEquals(threadName.get(), "kumuluzee-openapi-generation");
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import io.restassured.RestAssured;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test serving the OpenAPI document when it is generated in the background after the server has started.
+ *
+ * @since 2.0.0
+ */
+public class BackgroundGenerationTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsManifestResource("subset-openapi.yml", "openapi.yml")
+                .addAsResource("background-generation-config.yml", "config.yml")
+                .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void backgroundGenerationTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("info.title", equalTo("Swagger Petstore"))
+                .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}", "/petstores"));
+    }
+
+    @Test
+    @RunAsClient
+    public void backgroundGenerationYamlTest() {
+        given()
+                .noFilters()
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .contentType("application/yaml");
+    }
+}
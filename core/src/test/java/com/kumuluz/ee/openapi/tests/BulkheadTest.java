@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.bulkhead.BulkheadApplication;
+import com.kumuluz.ee.openapi.tests.apps.bulkhead.BulkheadResource;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test admission, queueing and rejection of requests by the bulkhead. The only permit of the bulkhead is taken by the
+ * test through {@link BulkheadResource}, so that the endpoint is occupied without holding a request open.
+ *
+ * @since 2.0.0
+ */
+public class BulkheadTest extends Arquillian {
+
+    private static final long QUEUE_TIMEOUT = 2000;
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(BulkheadApplication.class, BulkheadResource.class)
+                .addAsResource("test-openapi.yml", "META-INF/openapi.yml")
+                .addAsResource("bulkhead-config.yml", "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @BeforeMethod
+    public void initializeServlet() {
+        // bulkhead is created when the servlet is initialized
+        getDocument().then().statusCode(200);
+    }
+
+    @Test
+    @RunAsClient
+    public void queuedRequestAdmittedTest() throws Exception {
+        occupy();
+        long queued = readCounters().get("queued");
+
+        CompletableFuture<Response> request = CompletableFuture.supplyAsync(this::getDocument);
+        awaitQueuedRequests(1);
+
+        given().noFilters().post("/api/bulkhead/release").then().statusCode(204);
+
+        request.get(QUEUE_TIMEOUT, TimeUnit.MILLISECONDS).then()
+                .statusCode(200)
+                .body("info.title", equalTo("Swagger Petstore"));
+
+        Map<String, Long> counters = readCounters();
+        assertEquals(counters.get("queued") - queued, 1L);
+        assertEquals((long) counters.get("concurrent-requests"), 0L);
+    }
+
+    @Test
+    @RunAsClient
+    public void fullQueueRejectedTest() throws Exception {
+        occupy();
+
+        CompletableFuture<Response> queuedRequest = CompletableFuture.supplyAsync(this::getDocument);
+        awaitQueuedRequests(1);
+
+        // queue is full, request is rejected without waiting
+        long start = System.nanoTime();
+        getDocument().then()
+                .statusCode(503)
+                .header("Retry-After", equalTo("5"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < QUEUE_TIMEOUT / 2,
+                "Request was not rejected immediately");
+
+        given().noFilters().post("/api/bulkhead/release").then().statusCode(204);
+        queuedRequest.get(QUEUE_TIMEOUT, TimeUnit.MILLISECONDS).then().statusCode(200);
+    }
+
+    @Test
+    @RunAsClient
+    public void queueTimeoutTest() {
+        occupy();
+
+        try {
+            long start = System.nanoTime();
+            getDocument().then()
+                    .statusCode(503)
+                    .header("Retry-After", equalTo("5"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= QUEUE_TIMEOUT - 100,
+                    "Request was rejected before the queue timeout");
+            assertEquals((long) readCounters().get("queued-requests"), 0L);
+        } finally {
+            given().noFilters().post("/api/bulkhead/release").then().statusCode(204);
+        }
+    }
+
+    private Response getDocument() {
+        return given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi");
+    }
+
+    private void occupy() {
+        given()
+                .noFilters()
+        .when()
+                .post("/api/bulkhead/acquire")
+        .then()
+                .statusCode(200)
+                .body(equalTo("true"));
+    }
+
+    private void awaitQueuedRequests(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + QUEUE_TIMEOUT / 2;
+        while (readCounters().get("queued-requests") != expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "Request was not queued");
+            Thread.sleep(20);
+        }
+    }
+
+    private Map<String, Long> readCounters() {
+        String body = given().noFilters().get("/api/bulkhead").then().statusCode(200).extract().asString();
+
+        return Arrays.stream(body.split("\n"))
+                .map(line -> line.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0], pair -> Long.parseLong(pair[1])));
+    }
+}
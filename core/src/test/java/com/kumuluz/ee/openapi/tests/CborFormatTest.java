@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test serving the OpenAPI document in CBOR format, selected by the Accept header or the {@code format} query parameter.
+ * Text formats are preferred when CBOR is accepted with the same quality.
+ *
+ * @since 2.0.0
+ */
+public class CborFormatTest extends AbstractOpenApiEndpointTest {
+
+    private static final String CBOR = "application/cbor";
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return createPetstoreDeployment();
+    }
+
+    @Test
+    @RunAsClient
+    public void cborAcceptHeaderTest() throws IOException {
+        byte[] content = given()
+                .noFilters()
+                .header("Accept", CBOR)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Type", equalTo(CBOR))
+                .extract().asByteArray();
+
+        assertPetstore(content);
+    }
+
+    @Test
+    @RunAsClient
+    public void cborQueryParameterTest() throws IOException {
+        byte[] content = given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .queryParam("format", "cbor")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Type", equalTo(CBOR))
+                .extract().asByteArray();
+
+        assertPetstore(content);
+    }
+
+    @Test
+    @RunAsClient
+    public void textFormatPreferredOnTieTest() {
+        given()
+                .noFilters()
+                .header("Accept", CBOR + "," + MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.'/pets'.get.summary", equalTo("List all pets"));
+    }
+
+    private void assertPetstore(byte[] content) throws IOException {
+        JsonNode document = cborMapper.readTree(content);
+
+        Assert.assertTrue(document.get("openapi").asText().startsWith("3."));
+        Assert.assertEquals(document.at("/paths/~1pets/get/summary").asText(), "List all pets");
+    }
+}
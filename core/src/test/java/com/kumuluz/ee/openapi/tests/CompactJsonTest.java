@@ -0,0 +1,105 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Test serving the OpenAPI document as JSON without indentation, selected by the {@code compact} query parameter. The
+ * parameter does not apply to YAML.
+ *
+ * @since 2.0.0
+ */
+public class CompactJsonTest extends AbstractOpenApiEndpointTest {
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return createPetstoreDeployment();
+    }
+
+    @Test
+    @RunAsClient
+    public void compactJsonTest() {
+        given()
+                .noFilters()
+                .queryParam("format", "json")
+                .queryParam("compact", "true")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(not(containsString("\n")))
+                .body("paths.'/pets'.get.summary", equalTo("List all pets"));
+    }
+
+    @Test
+    @RunAsClient
+    public void compactJsonSmallerTest() {
+        String pretty = given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .statusCode(200)
+                .body(containsString("\n"))
+                .extract().asString();
+
+        String compact = given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .queryParam("compact", "true")
+        .when()
+                .get("/openapi")
+        .then()
+                .statusCode(200)
+                .extract().asString();
+
+        Assert.assertTrue(compact.length() < pretty.length());
+    }
+
+    @Test
+    @RunAsClient
+    public void compactIgnoredForYamlTest() {
+        given()
+                .noFilters()
+                .queryParam("compact", "true")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(containsString("openapi: 3.0.0\n"));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheApplication;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheCounters;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheResource;
+import com.kumuluz.ee.openapi.tests.apps.synthetic.SyntheticApiModelReader;
+import io.restassured.RestAssured;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Test that concurrent requests are served from a single build of the representations. The document is large enough
+ * for its serialization to overlap with the concurrent requests.
+ *
+ * @since 2.0.0
+ */
+public class ConcurrentRequestTest extends Arquillian {
+
+    private static final int REQUESTS = 16;
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(CacheApplication.class, CacheResource.class, SyntheticApiModelReader.class)
+                .addAsResource("concurrent-config.yml", "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void concurrentSubsetRequestsTest() throws Exception {
+        Map<String, Long> before = CacheCounters.read();
+
+        // empty path prefix selects all paths, so the subset is as large as the document
+        List<String> entityTags = requestConcurrently("/openapi?pathPrefix=/");
+
+        Map<String, Long> after = CacheCounters.read();
+
+        Assert.assertEquals(new HashSet<>(entityTags).size(), 1);
+        Assert.assertEquals(after.get("subset-extractions") - before.get("subset-extractions"), 1L);
+        Assert.assertEquals(after.get("subset-builds") - before.get("subset-builds"), 1L);
+        Assert.assertTrue(after.get("coalesced-waits") > before.get("coalesced-waits"),
+                "No request waited for the build started by another request");
+    }
+
+    @Test
+    @RunAsClient
+    public void staleWhileRevalidateTest() throws Exception {
+        String entityTag = requestConcurrently("/openapi").get(0);
+
+        Map<String, Long> before = CacheCounters.read();
+        CacheCounters.invalidate();
+
+        List<String> entityTags = requestConcurrently("/openapi");
+
+        Map<String, Long> after = CacheCounters.read();
+
+        // document did not change, outdated and rebuilt representations are equal
+        Assert.assertEquals(new HashSet<>(entityTags).size(), 1);
+        Assert.assertEquals(entityTags.get(0), entityTag);
+        Assert.assertEquals(after.get("builds") - before.get("builds"), 1L);
+        Assert.assertTrue(after.get("stale-responses") > before.get("stale-responses"),
+                "No request was served the outdated representation during the rebuild");
+
+        // rebuilt representations are served without another build
+        requestConcurrently("/openapi");
+        Assert.assertEquals(CacheCounters.read().get("builds"), after.get("builds"));
+    }
+
+    private List<String> requestConcurrently(String path) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+
+        try {
+            List<Callable<String>> requests = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                requests.add(() -> given()
+                        .noFilters()
+                        .header("Accept-Encoding", "identity")
+                .when()
+                        .get(path)
+                .then()
+                        .statusCode(200)
+                        .extract().header("ETag"));
+            }
+
+            List<String> entityTags = new ArrayList<>();
+            for (Future<String> response : executor.invokeAll(requests)) {
+                entityTags.add(response.get());
+            }
+
+            return entityTags;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
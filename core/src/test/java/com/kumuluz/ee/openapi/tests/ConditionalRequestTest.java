@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import io.restassured.RestAssured;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Test conditional GET requests on /openapi endpoint.
+ *
+ * @since 2.0.0
+ */
+public class ConditionalRequestTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsManifestResource("test-openapi.yml", "openapi.yml")
+                .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    private String getHeader(String accept, String header) {
+        return given()
+                .noFilters()
+                .header("Accept", accept)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header(header, notNullValue())
+                .extract().header(header);
+    }
+
+    @Test
+    @RunAsClient
+    public void ifNoneMatchTest() {
+        String etag = getHeader("text/yaml", "ETag");
+
+        given()
+                .noFilters()
+                .header("Accept", "text/yaml")
+                .header("If-None-Match", etag)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(304)
+                .body(emptyString());
+    }
+
+    @Test
+    @RunAsClient
+    public void ifNoneMatchOtherFormatTest() {
+        String etag = getHeader("text/yaml", "ETag");
+
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .header("If-None-Match", etag)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(not(emptyString()));
+    }
+
+    @Test
+    @RunAsClient
+    public void ifModifiedSinceTest() {
+        String lastModified = getHeader("text/yaml", "Last-Modified");
+
+        given()
+                .noFilters()
+                .header("Accept", "text/yaml")
+                .header("If-Modified-Since", lastModified)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(304);
+    }
+
+    @Test
+    @RunAsClient
+    public void ifNoneMatchTakesPrecedenceTest() {
+        String lastModified = getHeader("text/yaml", "Last-Modified");
+
+        given()
+                .noFilters()
+                .header("Accept", "text/yaml")
+                .header("If-None-Match", "\"outdated\"")
+                .header("If-Modified-Since", lastModified)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import io.restassured.config.DecoderConfig;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+
+import static io.restassured.RestAssured.config;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test compressing the OpenAPI document with the encoding negotiated from the Accept-Encoding header. Encodings
+ * refused with a zero quality value are not used, identity is used when no other encoding is accepted.
+ *
+ * @since 2.0.0
+ */
+public class ContentEncodingTest extends AbstractOpenApiEndpointTest {
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+        return createPetstoreDeployment();
+    }
+
+    @Test
+    @RunAsClient
+    public void gzipTest() {
+        given()
+                .noFilters()
+                .config(config().decoderConfig(DecoderConfig.decoderConfig()
+                        .contentDecoders(DecoderConfig.ContentDecoder.GZIP)))
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("gzip"))
+                .header("Vary", containsString("Accept-Encoding"))
+                .body(isYaml());
+    }
+
+    @Test
+    @RunAsClient
+    public void deflateTest() {
+        given()
+                .noFilters()
+                .config(config().decoderConfig(DecoderConfig.decoderConfig()
+                        .contentDecoders(DecoderConfig.ContentDecoder.DEFLATE)))
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("deflate"))
+                .body(isYaml());
+    }
+
+    @Test
+    @RunAsClient
+    public void identityTest() {
+        given()
+                .noFilters()
+                .config(config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+                .header("Accept-Encoding", "identity")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .body(isYaml());
+    }
+
+    @Test
+    @RunAsClient
+    public void refusedEncodingTest() {
+        given()
+                .noFilters()
+                .config(config().decoderConfig(DecoderConfig.decoderConfig()
+                        .contentDecoders(DecoderConfig.ContentDecoder.DEFLATE)))
+                .header("Accept-Encoding", "gzip;q=0, deflate")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("deflate"));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.spi.OASFilterProvider;
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
+import com.kumuluz.ee.openapi.tests.apps.filters.ConfiguredFilter;
+import com.kumuluz.ee.openapi.tests.apps.filters.ProvidedFilter;
+import com.kumuluz.ee.openapi.tests.apps.filters.ProvidedFilterProvider;
+import com.kumuluz.ee.openapi.tests.apps.startup.StartupReportApplication;
+import com.kumuluz.ee.openapi.tests.apps.startup.StartupReportResource;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.matchesPattern;
+
+/**
+ * Test applying the filter from the {@code mp.openapi.filter} configuration key together with a filter registered
+ * through {@link OASFilterProvider}. Both filters are applied to the document and the time spent in each is recorded as
+ * a separate startup phase.
+ *
+ * @since 2.0.0
+ */
+public class FilterRegistrationTest extends AbstractOpenApiEndpointTest {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        String config = "mp:\n" +
+                "  openapi:\n" +
+                "    filter: " + ConfiguredFilter.class.getName() + "\n";
+
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(StartupReportApplication.class, StartupReportResource.class, ConfiguredFilter.class,
+                        ProvidedFilter.class, ProvidedFilterProvider.class)
+                .addAsResource(new StringAsset(config), "config.yml")
+                .addAsResource(new StringAsset(ProvidedFilterProvider.class.getName()),
+                        "META-INF/services/" + OASFilterProvider.class.getName())
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Test
+    @RunAsClient
+    public void bothFiltersAppliedTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("x-configured-filter", equalTo(true))
+                .body("x-provided-filter", equalTo(true))
+                .body("paths", hasKey("/api/startup-report"));
+    }
+
+    @Test
+    @RunAsClient
+    public void filterPhasesRecordedTest() {
+        given()
+                .noFilters()
+        .when()
+                .get("/api/startup-report")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(allOf(
+                        matchesPattern("(?sm).*^" + filterPhase(ConfiguredFilter.class) + "=\\d+$.*"),
+                        matchesPattern("(?sm).*^" + filterPhase(ProvidedFilter.class) + "=\\d+$.*")));
+    }
+
+    private static String filterPhase(Class<?> filter) {
+        return (StartupReport.PHASE_FILTER_PREFIX + filter.getName()).replace(".", "\\.");
+    }
+}
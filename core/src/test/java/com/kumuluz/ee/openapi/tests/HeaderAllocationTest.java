@@ -0,0 +1,105 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.mp.cache.ContentEncoding;
+import com.kumuluz.ee.openapi.mp.util.ContentEncodingUtil;
+import com.kumuluz.ee.openapi.mp.util.MediaTypeUtil;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test that negotiation of the Accept and Accept-Encoding headers does not allocate. Allocations of the current thread
+ * are measured over many calls, so that a single allocation per call would exceed the tolerance, which only covers the
+ * measurement itself.
+ *
+ * @since 2.0.0
+ */
+public class HeaderAllocationTest {
+
+    private static final int CALLS = 100_000;
+    private static final long TOLERANCE = 1024;
+
+    private static final String ACCEPT = "text/html, application/xhtml+xml;q=0.9, application/json;q=0.8, */*;q=0.1";
+    private static final String ACCEPT_ENCODING = "br;q=1.0, gzip;q=0.8, deflate;q=0.6, *;q=0.1";
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @BeforeClass
+    public void setUpThreadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("Thread allocation counters are not supported by the JVM");
+        }
+
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            throw new SkipException("Thread allocation counters are not enabled");
+        }
+    }
+
+    @Test
+    public void cachedAcceptHeaderTest() {
+        assertEquals(MediaTypeUtil.parseMediaType(ACCEPT), SpecFormat.JSON);
+
+        long allocated = measure(() -> MediaTypeUtil.parseMediaType(ACCEPT));
+        assertTrue(allocated <= TOLERANCE, CALLS + " cached negotiations allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void uncachedAcceptHeaderTest() {
+        // headers longer than 512 characters are parsed on every call
+        String header = String.join(", ", Collections.nCopies(40, "text/plain;q=0.5")) + ", application/yaml";
+        assertEquals(MediaTypeUtil.parseMediaType(header), SpecFormat.YAML);
+
+        long allocated = measure(() -> MediaTypeUtil.parseMediaType(header));
+        assertTrue(allocated <= TOLERANCE, CALLS + " parsed negotiations allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void acceptEncodingHeaderTest() {
+        Set<ContentEncoding> available = EnumSet.allOf(ContentEncoding.class);
+        assertEquals(ContentEncodingUtil.negotiate(ACCEPT_ENCODING, available), ContentEncoding.GZIP);
+
+        long allocated = measure(() -> ContentEncodingUtil.negotiate(ACCEPT_ENCODING, available));
+        assertTrue(allocated <= TOLERANCE, CALLS + " negotiations allocated " + allocated + " bytes");
+    }
+
+    private long measure(Runnable negotiation) {
+        long threadId = Thread.currentThread().getId();
+
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            negotiation.run();
+        }
+
+        return threadMXBean.getThreadAllocatedBytes(threadId) - start;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.indexcache.IndexCacheApplication;
+import com.kumuluz.ee.openapi.tests.apps.indexcache.IndexCacheResource;
+import io.restassured.RestAssured;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.jandex.IndexReader;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test persisting the annotation index to the index cache directory and loading it instead of scanning after a
+ * restart.
+ *
+ * @since 2.0.0
+ */
+public class IndexCacheTest extends Arquillian {
+
+    private static Path directory;
+
+    @Deployment
+    public static WebArchive createDeployment() throws IOException {
+        // private to this run, the application is started in a different working directory
+        directory = Files.createTempDirectory("kumuluzee-openapi-mp-index");
+
+        String config = "kumuluzee:\n" +
+                "  openapi-mp:\n" +
+                "    scanning:\n" +
+                "      index-cache:\n" +
+                "        enabled: true\n" +
+                "        directory: " + directory.toAbsolutePath() + "\n";
+
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(IndexCacheApplication.class, IndexCacheResource.class)
+                .addAsResource("subset-openapi.yml", "META-INF/openapi.yml")
+                .addAsResource(new StringAsset(config), "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        if (directory == null) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> {
+                try {
+                    Files.delete(f);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // steps depend on each other, TestNG would run dependent tests apart from the other tests of this deployment
+    @Test
+    @RunAsClient
+    public void indexCacheTest() throws IOException {
+        assertIndexCached();
+        assertRestartLoadsCachedIndex();
+        assertReadOnlyDirectoryLoaded();
+        assertUntrustedIndexIgnored();
+    }
+
+    private void assertIndexCached() throws IOException {
+        given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("info.title", equalTo("Swagger Petstore"));
+
+        Assert.assertTrue(readCachedClasses() > 0);
+    }
+
+    private void assertRestartLoadsCachedIndex() throws IOException {
+        Object cachedFile = getFileKey();
+
+        String restartCount = restart();
+
+        // the index is stored again (replacing the file) only if the classpath was scanned
+        Assert.assertEquals(getFileKey(), cachedFile, "Classpath scanned although the index is cached");
+        Assert.assertEquals(restartCount, Integer.toString(readCachedClasses()));
+    }
+
+    private void assertReadOnlyDirectoryLoaded() throws IOException {
+        Object cachedFile = getFileKey();
+
+        Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("r-x------"));
+        String restartCount;
+        try {
+            restartCount = restart();
+        } finally {
+            Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwx------"));
+        }
+
+        Assert.assertEquals(getFileKey(), cachedFile, "Classpath scanned although the index is cached");
+        Assert.assertEquals(restartCount, Integer.toString(readCachedClasses()));
+    }
+
+    private void assertUntrustedIndexIgnored() throws IOException {
+        Path indexFile = getIndexFile();
+        Files.setPosixFilePermissions(indexFile, PosixFilePermissions.fromString("rw-rw-rw-"));
+        Object untrustedFile = getFileKey();
+
+        restart();
+
+        Assert.assertNotEquals(getFileKey(), untrustedFile, "Index loaded although it is writable by others");
+    }
+
+    private static String restart() {
+        return given()
+                .noFilters()
+        .when()
+                .post("/api/index-cache/restart")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .extract().body().asString();
+    }
+
+    private static int readCachedClasses() throws IOException {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(getIndexFile())))) {
+            // fingerprint and number of partial indexes precede the length-prefixed indexes
+            is.readUTF();
+            int count = is.readInt();
+
+            int classes = 0;
+            for (int i = 0; i < count; i++) {
+                byte[] serialized = new byte[is.readInt()];
+                is.readFully(serialized);
+                classes += new IndexReader(new ByteArrayInputStream(serialized)).read().getKnownClasses().size();
+            }
+            return classes;
+        }
+    }
+
+    private static Object getFileKey() throws IOException {
+        return Files.readAttributes(getIndexFile(), BasicFileAttributes.class).fileKey();
+    }
+
+    private static Path getIndexFile() throws IOException {
+        List<Path> indexFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            indexFiles = files.filter(f -> f.getFileName().toString().endsWith(".idx"))
+                    .collect(Collectors.toList());
+        }
+        Assert.assertEquals(indexFiles.size(), 1, "Index not stored in the index cache directory");
+
+        return indexFiles.get(0);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.bulkhead.BulkheadApplication;
+import com.kumuluz.ee.openapi.tests.apps.bulkhead.BulkheadResource;
+import com.kumuluz.ee.openapi.tests.apps.handler.MarkingFilter;
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static io.restassured.RestAssured.config;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test serving the OpenAPI document from the Jetty handler.
+ *
+ * @since 2.0.0
+ */
+public class JettyHandlerTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(BulkheadApplication.class, BulkheadResource.class, MarkingFilter.class)
+                .addAsResource("subset-openapi.yml", "META-INF/openapi.yml")
+                .addAsResource("handler-config.yml", "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void handlerYamlTest() {
+        given()
+                .noFilters()
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .contentType("application/yaml")
+                .header("ETag", notNullValue());
+    }
+
+    @Test
+    @RunAsClient
+    public void handlerJsonTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}", "/petstores"));
+    }
+
+    @Test
+    @RunAsClient
+    public void handlerConditionalRequestTest() {
+        String etag = given()
+                .noFilters()
+        .when()
+                .get("/openapi")
+        .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        given()
+                .noFilters()
+                .header("If-None-Match", etag)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(304);
+    }
+
+    @Test
+    @RunAsClient
+    public void handlerCompressedTest() {
+        given()
+                .noFilters()
+                .config(config().decoderConfig(DecoderConfig.decoderConfig()
+                        .contentDecoders(DecoderConfig.ContentDecoder.GZIP)))
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("gzip"))
+                .body("info.title", equalTo("Swagger Petstore"));
+    }
+
+    @Test
+    @RunAsClient
+    public void handlerBypassesFiltersTest() {
+        given()
+                .noFilters()
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header(MarkingFilter.HEADER, nullValue());
+
+        given()
+                .noFilters()
+        .when()
+                .get("/api/bulkhead")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header(MarkingFilter.HEADER, equalTo("true"));
+    }
+
+    @Test
+    @RunAsClient
+    public void handlerSharesBulkheadTest() {
+        // initializes the servlet and its bulkhead
+        given().noFilters().get("/openapi").then().statusCode(200);
+
+        given().noFilters().post("/api/bulkhead/acquire").then().statusCode(200).body(equalTo("true"));
+        try {
+            given()
+                    .noFilters()
+            .when()
+                    .get("/openapi")
+            .then()
+                    .log().ifValidationFails()
+                    .statusCode(503)
+                    .header("Retry-After", equalTo("5"));
+        } finally {
+            given().noFilters().post("/api/bulkhead/release").then().statusCode(204);
+        }
+
+        given().noFilters().get("/openapi").then().statusCode(200);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheApplication;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheCounters;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheResource;
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+
+import static io.restassured.RestAssured.config;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test serving the OpenAPI document from representations stored off-heap.
+ *
+ * @since 2.0.0
+ */
+public class OffHeapCacheTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(CacheApplication.class, CacheResource.class)
+                .addAsResource("subset-openapi.yml", "META-INF/openapi.yml")
+                .addAsResource("off-heap-config.yml", "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void offHeapDocumentTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}", "/petstores"));
+
+        Map<String, Long> representations = CacheCounters.readRepresentations();
+        assertTrue(representations.get("representations") > 0);
+        assertEquals(representations.get("direct"), representations.get("representations"),
+                "Representations of the whole document are not stored in direct buffers");
+    }
+
+    @Test
+    @RunAsClient
+    public void offHeapCompressedDocumentTest() {
+        given()
+                .noFilters()
+                .config(config().decoderConfig(DecoderConfig.decoderConfig()
+                        .contentDecoders(DecoderConfig.ContentDecoder.GZIP)))
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("gzip"))
+                .body("info.title", equalTo("Swagger Petstore"));
+    }
+
+    @Test
+    @RunAsClient
+    public void offHeapSubsetsTest() {
+        // the budget fits the representations of the whole document and one representation of a subset
+        CacheCounters.readRepresentations();
+        long evictions = CacheCounters.read().get("off-heap-evictions");
+
+        // subsets replace each other in the store
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .noFilters()
+                    .header("Accept", MediaType.APPLICATION_JSON)
+                    .header("Accept-Encoding", "identity")
+                    .queryParam("tag", "stores")
+            .when()
+                    .get("/openapi")
+            .then()
+                    .log().ifValidationFails()
+                    .statusCode(200)
+                    .body("paths.keySet()", contains("/petstores"));
+
+            given()
+                    .noFilters()
+                    .header("Accept", MediaType.APPLICATION_JSON)
+                    .header("Accept-Encoding", "identity")
+                    .queryParam("tag", "pets")
+            .when()
+                    .get("/openapi")
+            .then()
+                    .log().ifValidationFails()
+                    .statusCode(200)
+                    .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}"));
+        }
+
+        Map<String, Long> counters = CacheCounters.read();
+        assertEquals((long) counters.get("off-heap-capacity"), 11800L);
+        assertTrue(counters.get("off-heap-used") <= counters.get("off-heap-capacity"));
+        // one entry for each format of the whole document, built at startup, and one subset
+        assertEquals((long) counters.get("off-heap-entries"), SpecFormat.values().length + 1L);
+        assertTrue(counters.get("off-heap-evictions") - evictions >= 3,
+                "Subsets were not evicted from the off-heap store");
+    }
+}
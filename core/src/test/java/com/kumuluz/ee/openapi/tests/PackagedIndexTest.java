@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import io.restassured.RestAssured;
+import org.eclipse.microprofile.openapi.apps.airlines.JAXRSApp;
+import org.glassfish.jersey.server.wadl.internal.WadlResource;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.jandex.Indexer;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Test using the packaged Jandex index instead of scanning the classpath. The packaged index contains a class which is
+ * not scanned at runtime, so its annotations are only present in the document if the packaged index is used. The Jersey
+ * WADL resource in the packaged index is excluded, as it is when scanning.
+ *
+ * @since 2.0.0
+ */
+public class PackagedIndexTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+        Indexer indexer = new Indexer();
+        for (Class<?> indexedClass : Arrays.asList(JAXRSApp.class, WadlResource.class)) {
+            try (InputStream is = indexedClass.getResourceAsStream(indexedClass.getSimpleName() + ".class")) {
+                indexer.index(is);
+            }
+        }
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        new IndexWriter(index).write(indexer.complete());
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsManifestResource(new ByteArrayAsset(index.toByteArray()), "jandex.idx")
+                .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void packagedIndexTest() {
+        given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("info.title", equalTo("AirlinesRatingApp API"));
+    }
+
+    @Test
+    @RunAsClient
+    public void jerseyExclusionsTest() {
+        given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths", not(hasKey("/application.wadl")));
+    }
+}
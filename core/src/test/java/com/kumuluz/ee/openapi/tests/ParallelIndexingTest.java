@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.indexing.CatalogApplication;
+import com.kumuluz.ee.openapi.tests.apps.indexing.IndexingServlet;
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Test indexing the whole classpath with multiple workers. Optimized scanning is disabled, so the classes of all
+ * dependencies are indexed, which is enough work for all configured workers. The document generated on startup has to
+ * contain the same paths and schemas as a model generated from an index built by a single worker.
+ *
+ * @since 2.0.0
+ */
+public class ParallelIndexingTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addPackage(CatalogApplication.class.getPackage())
+                .addAsResource("parallel-indexing-config.yml", "config.yml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void parallelIndexingTest() {
+        JsonPath document = given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .extract().jsonPath();
+
+        String paths = sorted(document.getMap("paths"));
+        String schemas = sorted(document.getMap("components.schemas"));
+        Assert.assertTrue(document.getMap("paths").containsKey("/api/products/{id}"), paths);
+        Assert.assertTrue(document.getMap("components.schemas").containsKey("Product"), schemas);
+
+        Map<String, String> sequential = getReport("/indexing?parallelism=1");
+        Assert.assertEquals(sequential.get("indexes"), "1");
+        Assert.assertEquals(sequential.get("paths"), paths);
+        Assert.assertEquals(sequential.get("schemas"), schemas);
+
+        // the configured workers split the classes and together index the same classes as a single worker
+        Map<String, String> parallel = getReport("/indexing?parallelism=4");
+        Assert.assertEquals(parallel.get("indexes"), "4");
+        Assert.assertEquals(parallel.get("classes-indexed"), sequential.get("classes-indexed"));
+        Assert.assertEquals(parallel.get("paths"), paths);
+        Assert.assertEquals(parallel.get("schemas"), schemas);
+
+        Assert.assertEquals(sequential.get("startup-classes-scanned"), sequential.get("classes-scanned"));
+        Assert.assertEquals(sequential.get("startup-classes-indexed"), sequential.get("classes-indexed"));
+    }
+
+    private static Map<String, String> getReport(String path) {
+        String report = given()
+                .noFilters()
+        .when()
+                .get(path)
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .extract().body().asString();
+
+        return Stream.of(report.split("\n"))
+                .map(line -> line.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0], pair -> pair.length > 1 ? pair[1] : ""));
+    }
+
+    private static String sorted(Map<String, ?> map) {
+        return map.keySet().stream().sorted().collect(Collectors.joining(","));
+    }
+}
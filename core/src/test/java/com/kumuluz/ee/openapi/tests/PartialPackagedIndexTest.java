@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.packaged.ExplodedResource;
+import com.kumuluz.ee.openapi.tests.apps.packaged.PackagedApplication;
+import io.restassured.RestAssured;
+import org.eclipse.microprofile.openapi.apps.airlines.JAXRSApp;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.jandex.Indexer;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test scanning the classpath when only some of the scanned artifacts contain a packaged index. The application runs
+ * exploded and its classes directory has no index, while the scanned library contains an index of a class which is
+ * not part of the library. The classpath has to be scanned, so the resource of the application is in the document and
+ * the class from the library index is not.
+ *
+ * @since 2.0.0
+ */
+public class PartialPackagedIndexTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() throws IOException {
+        Indexer indexer = new Indexer();
+        try (InputStream is = JAXRSApp.class.getResourceAsStream(JAXRSApp.class.getSimpleName() + ".class")) {
+            indexer.index(is);
+        }
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        new IndexWriter(index).write(indexer.complete());
+
+        JavaArchive library = ShrinkWrap.create(JavaArchive.class, "indexed-library-1.0.0.jar")
+                .addAsManifestResource(new ByteArrayAsset(index.toByteArray()), "jandex.idx");
+
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(PackagedApplication.class, ExplodedResource.class)
+                .addAsLibrary(library)
+                .addAsResource("packaged-index-config.yml", "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void partialPackagedIndexTest() {
+        given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths", hasKey("/api/exploded"))
+                .body("info.title", not("AirlinesRatingApp API"))
+                .body("info.title", not(nullValue()));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.utils.PrebuiltFingerprint;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+/**
+ * Test the inputs covered by {@link PrebuiltFingerprint}: classes, static OpenAPI files and configuration files change
+ * the fingerprint, other resources do not.
+ *
+ * @since 2.0.0
+ */
+public class PrebuiltFingerprintTest {
+
+    private Path classes;
+
+    @BeforeMethod
+    public void createClasses() throws IOException {
+        classes = Files.createTempDirectory("prebuilt-fingerprint");
+        write("com/example/Resource.class", "class");
+        write("META-INF/openapi.yaml", "openapi: 3.0.3");
+        write("config.yml", "mp:\n  openapi:\n    servers: http://localhost:8080");
+    }
+
+    @AfterMethod
+    public void deleteClasses() throws IOException {
+        try (Stream<Path> files = Files.walk(classes)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void configurationChangesFingerprintTest() throws IOException {
+        String fingerprint = PrebuiltFingerprint.compute(classes);
+
+        write("config.yml", "mp:\n  openapi:\n    servers: http://localhost:9090");
+        String changedConfig = PrebuiltFingerprint.compute(classes);
+        assertNotEquals(changedConfig, fingerprint);
+
+        write("META-INF/microprofile-config.properties", "mp.openapi.filter=com.example.Filter");
+        assertNotEquals(PrebuiltFingerprint.compute(classes), changedConfig);
+    }
+
+    @Test
+    public void otherResourcesIgnoredTest() throws IOException {
+        String fingerprint = PrebuiltFingerprint.compute(classes);
+
+        write("templates/index.html", "<html></html>");
+        assertEquals(PrebuiltFingerprint.compute(classes), fingerprint);
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = classes.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
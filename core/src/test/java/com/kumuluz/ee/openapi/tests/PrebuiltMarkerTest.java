@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.utils.PrebuiltFingerprint;
+import com.kumuluz.ee.openapi.tests.apps.sharedindex.LibraryResource;
+import io.restassured.RestAssured;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.jar.JarFile;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test serving the OpenAPI document generated at build time when the fingerprints in the packaged marker match the
+ * application and the scanned library. Prebuilt mode is not enabled in the configuration.
+ *
+ * @since 2.0.0
+ */
+public class PrebuiltMarkerTest extends Arquillian {
+
+    private static final String GENERATED_DIRECTORY = "META-INF/kumuluzee/openapi/generated/";
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        JavaArchive library = ShrinkWrap.create(JavaArchive.class, "scanned-library.jar")
+                .addClass(LibraryResource.class);
+        JavaArchive application = ShrinkWrap.create(JavaArchive.class, "application.jar")
+                .addAsManifestResource("test-openapi.yml", "openapi.yml")
+                .addAsResource("prebuilt/openapi.yaml", GENERATED_DIRECTORY + "openapi.yaml")
+                .addAsResource("prebuilt/openapi.json", GENERATED_DIRECTORY + "openapi.json");
+
+        String marker = PrebuiltFingerprint.FINGERPRINT_PROPERTY + "=" + fingerprint(application) + "\n" +
+                PrebuiltFingerprint.LIBRARY_PROPERTY_PREFIX + "scanned-library.jar=" + fingerprint(library) + "\n";
+        application.addAsResource(new StringAsset(marker), GENERATED_DIRECTORY + PrebuiltFingerprint.MARKER_FILE);
+
+        // prebuilt mode is not enabled in the configuration, the document is detected from the marker
+        return ShrinkWrap.create(WebArchive.class)
+                .addAsLibrary(application)
+                .addAsLibrary(library)
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    /**
+     * Fingerprints the archive the same way the Maven plugin fingerprints the compiled classes and scanned libraries.
+     */
+    static String fingerprint(JavaArchive archive) {
+        try {
+            File file = Files.createTempFile("prebuilt-marker", ".jar").toFile();
+            file.deleteOnExit();
+            archive.as(ZipExporter.class).exportTo(file, true);
+
+            try (JarFile jarFile = new JarFile(file)) {
+                return PrebuiltFingerprint.compute(jarFile, "");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void prebuiltMarkerTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("info.title", equalTo("Prebuilt Petstore"));
+    }
+}
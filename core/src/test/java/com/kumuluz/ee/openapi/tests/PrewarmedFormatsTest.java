@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheApplication;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheCounters;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheResource;
+import io.restassured.specification.RequestSpecification;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test that the representations of the whole document are built in every format at startup, so that the first request
+ * for any format is served from the cache.
+ *
+ * @since 2.0.0
+ */
+public class PrewarmedFormatsTest extends AbstractOpenApiEndpointTest {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(CacheApplication.class, CacheResource.class)
+                .addAsResource("test-openapi.yml", "META-INF/openapi.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Test
+    @RunAsClient
+    public void allFormatsBuiltAtStartupTest() {
+        Map<String, Long> before = CacheCounters.read();
+        assertEquals(before.get("format-builds"), (Long) (long) SpecFormat.values().length);
+
+        request(MediaType.APPLICATION_JSON, false);
+        request(MediaType.APPLICATION_JSON, true);
+        request("application/cbor", false);
+        request("application/yaml", false);
+
+        Map<String, Long> after = CacheCounters.read();
+        assertEquals(after.get("format-builds"), before.get("format-builds"));
+        assertEquals(after.get("builds"), before.get("builds"));
+    }
+
+    private void request(String accept, boolean compact) {
+        RequestSpecification request = given()
+                .noFilters()
+                .header("Accept", accept);
+        if (compact) {
+            request = request.queryParam("compact", "true");
+        }
+
+        request
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.spi.IndexProvider;
+import com.kumuluz.ee.openapi.tests.apps.packaged.ExplodedResource;
+import com.kumuluz.ee.openapi.tests.apps.sharedindex.LibraryResource;
+import com.kumuluz.ee.openapi.tests.apps.sharedindex.SerializedIndexProvider;
+import com.kumuluz.ee.openapi.tests.apps.startup.StartupReportApplication;
+import com.kumuluz.ee.openapi.tests.apps.startup.StartupReportResource;
+import io.restassured.RestAssured;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.wadl.internal.WadlResource;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.jandex.Indexer;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Test using the index shared through {@link IndexProvider} instead of scanning the classpath. Besides the classes of
+ * the application, the shared index contains classes which are excluded from scanning: Jersey wadl and
+ * {@link ResourceConfig} from a scanned library and a resource from a library which is not scanned. Only the classes of
+ * the application may be used from the shared index.
+ *
+ * @since 2.0.0
+ */
+public class SharedIndexTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() throws IOException {
+        Indexer indexer = new Indexer();
+        for (Class<?> c : new Class<?>[]{StartupReportApplication.class, StartupReportResource.class,
+                ExplodedResource.class, LibraryResource.class, WadlResource.class, ResourceConfig.class}) {
+            try (InputStream is = c.getResourceAsStream(c.getSimpleName() + ".class")) {
+                indexer.index(is);
+            }
+        }
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        new IndexWriter(index).write(indexer.complete());
+
+        JavaArchive library = ShrinkWrap.create(JavaArchive.class, "shared-library-1.0.0.jar")
+                .addClass(LibraryResource.class);
+
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(StartupReportApplication.class, StartupReportResource.class, ExplodedResource.class)
+                .addClass(SerializedIndexProvider.class)
+                .addAsServiceProvider(IndexProvider.class, SerializedIndexProvider.class)
+                .addAsResource(new ByteArrayAsset(index.toByteArray()), SerializedIndexProvider.RESOURCE)
+                .addAsLibrary(library)
+                .addAsResource("shared-index-config.yml", "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void sharedIndexTest() {
+        given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths", hasKey("/api/exploded"))
+                .body("paths", not(hasKey("/api/library")))
+                .body("paths", not(hasKey("/api/application.wadl")));
+
+        given()
+                .noFilters()
+        .when()
+                .get("/api/startup-report")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(allOf(
+                        matchesPattern("(?sm).*^index-load=\\d+$.*"),
+                        not(containsString("scan=")),
+                        // the classes of the application only
+                        matchesPattern("(?sm).*^classes-indexed=3$.*")));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.handler.SpecHandler;
+import com.kumuluz.ee.openapi.mp.handler.SpecHandlerInstaller;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.session.SessionHandler;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test that {@link SpecHandlerInstaller}, registered as a life cycle listener of the servlet context in the same way
+ * as by the extension, places the handler in front of the session and servlet handlers before they are started.
+ *
+ * @since 2.0.0
+ */
+public class SpecHandlerInstallerTest {
+
+    private Server server;
+    private ServletContextHandler contextHandler;
+
+    @BeforeMethod
+    public void startServer() throws Exception {
+        server = new Server(0);
+        contextHandler = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        contextHandler.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            }
+        }), "/*");
+        contextHandler.addEventListener(new SpecHandlerInstaller("/openapi"));
+        server.setHandler(contextHandler);
+        server.start();
+    }
+
+    @AfterMethod
+    public void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void handlerInChainTest() {
+        Handler first = contextHandler.getHandler();
+        assertTrue(first instanceof SpecHandler, "First handler of the context is " + first);
+
+        SpecHandler specHandler = (SpecHandler) first;
+        assertTrue(specHandler.isStarted(), "Handler was inserted after the chain had been started");
+        assertNotNull(specHandler.getChildHandlerByClass(SessionHandler.class));
+        assertSame(specHandler.getChildHandlerByClass(ServletHandler.class), contextHandler.getServletHandler());
+    }
+
+    @Test
+    public void handlerInstalledOnceTest() throws Exception {
+        // restarting the context notifies the installer again
+        contextHandler.stop();
+        contextHandler.start();
+
+        assertTrue(contextHandler.getHandler() instanceof SpecHandler);
+        assertEquals(contextHandler.getChildHandlersByClass(SpecHandler.class).length, 1);
+    }
+
+    @Test
+    public void requestsPassedOnTest() throws IOException {
+        // the OpenAPI servlet is not registered, all requests reach the servlet handler
+        for (String path : new String[]{"/openapi", "/api/resource"}) {
+            int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+                    .openConnection();
+            try {
+                assertEquals(connection.getResponseCode(), HttpServletResponse.SC_NO_CONTENT, path);
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+}
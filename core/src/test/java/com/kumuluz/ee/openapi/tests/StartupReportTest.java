@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.startup.StartupReportApplication;
+import com.kumuluz.ee.openapi.tests.apps.startup.StartupReportResource;
+import io.restassured.RestAssured;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Test recording the startup phases and the sizes of the scanned application and the generated document.
+ *
+ * @since 2.0.0
+ */
+public class StartupReportTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(StartupReportApplication.class, StartupReportResource.class)
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void startupReportTest() {
+        given()
+                .noFilters()
+        .when()
+                .get("/api/startup-report")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(allOf(
+                        matchesPattern("(?sm).*^scan=\\d+$.*"),
+                        matchesPattern("(?sm).*^index=\\d+$.*"),
+                        matchesPattern("(?sm).*^annotations=\\d+$.*"),
+                        matchesPattern("(?sm).*^initialize=\\d+$.*"),
+                        matchesPattern("(?sm).*^serialization=\\d+$.*"),
+                        matchesPattern("(?sm).*^classes-indexed=[1-9]\\d*$.*"),
+                        containsString("paths=1\n"),
+                        containsString("operations=1\n"),
+                        // no shared, packaged or cached index was found
+                        not(containsString("index-load="))));
+    }
+}
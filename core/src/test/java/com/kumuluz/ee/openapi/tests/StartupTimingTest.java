@@ -0,0 +1,50 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Test recording of the startup phase durations by {@link StartupReport}: lookups which fail are recorded, lookups
+ * which find nothing are not.
+ *
+ * @since 2.0.0
+ */
+public class StartupTimingTest {
+
+    @Test
+    public void failedLookupRecordedTest() {
+        StartupReport report = StartupReport.getInstance();
+
+        expectThrows(IllegalStateException.class, () -> report.timeIfPresent("test-failed-lookup", () -> {
+            throw new IllegalStateException();
+        }));
+        report.timeIfPresent("test-empty-lookup", () -> null);
+
+        assertTrue(report.getPhases().containsKey("test-failed-lookup"));
+        assertFalse(report.getPhases().containsKey("test-empty-lookup"));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.heap.HeapApplication;
+import com.kumuluz.ee.openapi.tests.apps.heap.HeapResource;
+import com.kumuluz.ee.openapi.tests.apps.heap.StreamingHeapResource;
+import com.kumuluz.ee.openapi.tests.apps.synthetic.SyntheticApiModelReader;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.text.MatchesPattern.matchesPattern;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test serialization of the OpenAPI document straight to the response when caching is disabled. The document of a
+ * synthetic API with 5000 operations is streamed from its model, the heap used while writing it must not grow with the
+ * size of the document.
+ *
+ * @since 2.0.0
+ */
+public class StreamingSerializationTest extends AbstractOpenApiEndpointTest {
+
+    private static final int OPERATIONS = 5000;
+
+    // the tree of the whole synthetic document takes several times more
+    private static final long LIVE_HEAP_BUDGET = 2 * 1024 * 1024;
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        String config = "kumuluzee:\n" +
+                "  openapi-mp:\n" +
+                "    servlet:\n" +
+                "      cache:\n" +
+                "        enabled: false\n" +
+                "mp:\n" +
+                "  openapi:\n" +
+                "    model:\n" +
+                "      reader: " + SyntheticApiModelReader.class.getName() + "\n" +
+                "synthetic-api:\n" +
+                "  operations: " + OPERATIONS + "\n";
+
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(HeapApplication.class, HeapResource.class, StreamingHeapResource.class,
+                        SyntheticApiModelReader.class)
+                .addAsResource(new StringAsset(config), "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Test
+    @RunAsClient
+    public void streamingYamlTest() {
+        given()
+                .noFilters()
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body(isYaml());
+    }
+
+    @Test
+    @RunAsClient
+    public void streamingJsonTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("openapi", matchesPattern("3\\.\\d+\\.\\d+"))
+                .body("paths.'/resources0/{id}'.get.summary", equalTo("Returns resource 0"))
+                .body("components.schemas.Model0.description", equalTo("Synthetic model 0"));
+    }
+
+    @Test
+    @RunAsClient
+    public void boundedLiveHeapTest() {
+        for (String format : Arrays.asList("YAML", "JSON", "CBOR")) {
+            String body = given()
+                    .noFilters()
+                    .queryParam("format", format)
+            .when()
+                    .get("/api/heap/streaming")
+            .then()
+                    .statusCode(200)
+                    .extract().body().asString();
+
+            Map<String, String> values = Arrays.stream(body.split("\n"))
+                    .map(line -> line.split("=", 2))
+                    .collect(Collectors.toMap(pair -> pair[0], pair -> pair[1]));
+
+            assertEquals(values.get("matches"), "true", format + " output differs from the document serialized through its tree");
+
+            long liveHeap = Long.parseLong(values.get("live-heap"));
+            assertTrue(liveHeap <= LIVE_HEAP_BUDGET, "Streaming " + values.get("document-size") + " bytes of " +
+                    format + " used " + liveHeap + " bytes of heap, budget is " + LIVE_HEAP_BUDGET + " bytes");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheApplication;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheCounters;
+import com.kumuluz.ee.openapi.tests.apps.cache.CacheResource;
+import io.restassured.RestAssured;
+import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.text.MatchesPattern.matchesPattern;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test serving subsets of the OpenAPI document selected by tag and path prefix.
+ *
+ * @since 2.0.0
+ */
+public class SubsetTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(CacheApplication.class, CacheResource.class)
+                .addAsResource("subset-openapi.yml", "META-INF/openapi.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void tagSubsetTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .queryParam("tag", "pets")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("info.title", equalTo("Swagger Petstore"))
+                .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}"))
+                .body("tags.name", contains("pets"))
+                .body("components.schemas.keySet()", containsInAnyOrder("Pet", "Pets", "Category"));
+    }
+
+    @Test
+    @RunAsClient
+    public void pathPrefixSubsetTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .queryParam("pathPrefix", "/petstores/")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.keySet()", contains("/petstores"))
+                .body("tags.name", contains("stores"))
+                .body("components.schemas.keySet()", contains("Store"));
+    }
+
+    @Test
+    @RunAsClient
+    public void pathPrefixSegmentBoundaryTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .queryParam("pathPrefix", "/pets")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}"));
+    }
+
+    @Test
+    @RunAsClient
+    public void emptySubsetTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .queryParam("tag", "unknown")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("openapi", matchesPattern("3\\.\\d+\\.\\d+"))
+                .body("paths.size()", equalTo(0));
+    }
+
+    @Test
+    @RunAsClient
+    public void fullDocumentTest() {
+        given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.keySet()", containsInAnyOrder("/pets", "/pets/{petId}", "/petstores"))
+                .body("components.schemas.keySet()", containsInAnyOrder("Pet", "Pets", "Category", "Store"));
+    }
+
+    @Test
+    @RunAsClient
+    public void subsetCacheTest() {
+        Map<String, Long> before = CacheCounters.read();
+
+        // unknown subsets are served, but not cached
+        for (int i = 0; i < 2; i++) {
+            requestSubset("missing", null)
+                    .body("paths.size()", equalTo(0));
+        }
+
+        Map<String, Long> afterEmpty = CacheCounters.read();
+        assertEquals(afterEmpty.get("subset-builds"), before.get("subset-builds"));
+        assertEquals(afterEmpty.get("subset-entries"), before.get("subset-entries"));
+
+        // only the requested representation is built, and only once
+        for (int i = 0; i < 2; i++) {
+            requestSubset("stores", "/petstores")
+                    .body("paths.keySet()", contains("/petstores"));
+        }
+
+        Map<String, Long> after = CacheCounters.read();
+        assertEquals(after.get("subset-builds"), (Long) (before.get("subset-builds") + 1));
+        assertEquals(after.get("subset-entries"), (Long) (before.get("subset-entries") + 1));
+    }
+
+    private ValidatableResponse requestSubset(String tag, String pathPrefix) {
+        RequestSpecification request = given()
+                .noFilters()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .header("Accept-Encoding", "identity")
+                .queryParam("tag", tag);
+        if (pathPrefix != null) {
+            request = request.queryParam("pathPrefix", pathPrefix);
+        }
+
+        return request
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests;
+
+import com.kumuluz.ee.openapi.tests.apps.indexing.CatalogApplication;
+import com.kumuluz.ee.openapi.tests.apps.indexing.CatalogResource;
+import com.kumuluz.ee.openapi.tests.apps.indexing.Category;
+import com.kumuluz.ee.openapi.tests.apps.indexing.IndexingServlet;
+import com.kumuluz.ee.openapi.tests.apps.indexing.Product;
+import com.kumuluz.ee.openapi.tests.apps.indexing.Tag;
+import com.kumuluz.ee.openapi.tests.apps.indexing.UnreferencedClass;
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+/**
+ * Test generating the document from the classes selected by targeted scanning. Classes which are not relevant to the
+ * document are not indexed, and the document contains the same paths and schemas as a model generated from an index
+ * of all scanned classes.
+ *
+ * @since 2.0.0
+ */
+public class TargetedScanTest extends Arquillian {
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ShrinkWrap.create(WebArchive.class)
+                .addPackage(CatalogApplication.class.getPackage())
+                .addAsResource("targeted-scan-config.yml", "config.yml");
+    }
+
+    @BeforeClass
+    public void setUpRestAssured() {
+        RestAssured.baseURI = "http://localhost:9080";
+    }
+
+    @Test
+    @RunAsClient
+    public void targetedScanTest() {
+        JsonPath document = given()
+                .noFilters()
+                .header("Accept", "application/json")
+        .when()
+                .get("/openapi")
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .body("paths.keySet()", containsInAnyOrder("/api/products", "/api/products/{id}"))
+                // model classes are only referenced from resource method signatures and fields of other models
+                .body("components.schemas.keySet()", containsInAnyOrder("Category", "Product", "Tag"))
+                .extract().jsonPath();
+
+        // the application runs exploded, only the classes directory is scanned
+        Map<String, String> full = getReport("/indexing?jars=false&classes=");
+        Assert.assertEquals(sorted(document.getMap("paths")), full.get("paths"));
+        Assert.assertEquals(sorted(document.getMap("components.schemas")), full.get("schemas"));
+        Assert.assertTrue(getClasses(full).contains(UnreferencedClass.class.getName()));
+
+        Map<String, String> targeted = getReport("/indexing?jars=false&targeted=true&classes=");
+        Assert.assertEquals(targeted.get("paths"), full.get("paths"));
+        Assert.assertEquals(targeted.get("schemas"), full.get("schemas"));
+        Assert.assertTrue(getClasses(targeted).containsAll(Arrays.asList(CatalogApplication.class.getName(),
+                CatalogResource.class.getName(), Product.class.getName(), Category.class.getName(),
+                Tag.class.getName())));
+        Assert.assertFalse(getClasses(targeted).contains(UnreferencedClass.class.getName()));
+        Assert.assertFalse(getClasses(targeted).contains(IndexingServlet.class.getName()));
+
+        // the same classes were scanned and selected on startup
+        Assert.assertEquals(targeted.get("startup-classes-scanned"), full.get("classes-scanned"));
+        Assert.assertEquals(targeted.get("startup-classes-indexed"), targeted.get("classes-indexed"));
+        Assert.assertTrue(Long.parseLong(targeted.get("classes-indexed")) <
+                Long.parseLong(full.get("classes-indexed")));
+    }
+
+    private static Map<String, String> getReport(String path) {
+        String report = given()
+                .noFilters()
+        .when()
+                .get(path)
+        .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .extract().body().asString();
+
+        return Stream.of(report.split("\n"))
+                .map(line -> line.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0], pair -> pair.length > 1 ? pair[1] : ""));
+    }
+
+    private static List<String> getClasses(Map<String, String> report) {
+        return Arrays.asList(report.get("classes").split(","));
+    }
+
+    private static String sorted(Map<String, ?> map) {
+        return map.keySet().stream().sorted().collect(Collectors.joining(","));
+    }
+}
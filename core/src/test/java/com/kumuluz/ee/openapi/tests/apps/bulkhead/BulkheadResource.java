@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.bulkhead;
+
+import com.kumuluz.ee.openapi.mp.bulkhead.Bulkhead;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Takes and returns permits of the {@code openapi} bulkhead, so that tests can occupy the endpoint without holding
+ * requests open. Operations are hidden, so that they do not change the served document.
+ *
+ * @since 2.0.0
+ */
+@Path("bulkhead")
+public class BulkheadResource {
+
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(hidden = true)
+    public String getCounters() {
+        Bulkhead bulkhead = getBulkhead();
+
+        return "concurrent-requests=" + bulkhead.getConcurrentRequests() + "\n" +
+                "queued-requests=" + bulkhead.getQueuedRequests() + "\n" +
+                "accepted=" + bulkhead.getAcceptedCount() + "\n" +
+                "queued=" + bulkhead.getQueuedCount() + "\n" +
+                "rejected=" + bulkhead.getRejectedCount() + "\n";
+    }
+
+    @POST
+    @Path("acquire")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(hidden = true)
+    public String acquire() {
+        return String.valueOf(getBulkhead().tryAcquire());
+    }
+
+    @POST
+    @Path("release")
+    @Operation(hidden = true)
+    public void release() {
+        getBulkhead().release();
+    }
+
+    private static Bulkhead getBulkhead() {
+        return Bulkhead.get("openapi").orElseThrow(NotFoundException::new);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Reads the counters exposed by {@link CacheResource}.
+ *
+ * @since 2.0.0
+ */
+public class CacheCounters {
+
+    public static Map<String, Long> read() {
+        return read("/api/cache");
+    }
+
+    public static Map<String, Long> readRepresentations() {
+        return read("/api/cache/representations");
+    }
+
+    private static Map<String, Long> read(String path) {
+        String body = given()
+                .noFilters()
+        .when()
+                .get(path)
+        .then()
+                .statusCode(200)
+                .extract().asString();
+
+        Map<String, Long> counters = new HashMap<>();
+        for (String line : body.split("\n")) {
+            String[] pair = line.split("=", 2);
+            counters.put(pair[0], Long.parseLong(pair[1]));
+        }
+
+        return counters;
+    }
+
+    public static void invalidate() {
+        given()
+                .noFilters()
+        .when()
+                .post("/api/cache/invalidate")
+        .then()
+                .statusCode(204);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.cache;
+
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.mp.cache.OffHeapStore;
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentation;
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentationCache;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Returns the counters of the representation cache, one {@code name=value} pair per line. Operations are hidden, so
+ * that they do not change the served document.
+ *
+ * @since 2.0.0
+ */
+@Path("cache")
+public class CacheResource {
+
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(hidden = true)
+    public String getCounters() {
+        SpecRepresentationCache cache = SpecRepresentationCache.getInstance();
+
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("builds", cache.getBuilds());
+        counters.put("format-builds", cache.getFormatBuilds());
+        counters.put("subset-builds", cache.getSubsetBuilds());
+        counters.put("subset-extractions", cache.getSubsetExtractions());
+        counters.put("subset-entries", cache.getSubsetEntries());
+        counters.put("coalesced-waits", cache.getCoalescedWaits());
+        counters.put("stale-responses", cache.getStaleResponses());
+
+        OffHeapStore offHeapStore = cache.getOffHeapStore();
+        if (offHeapStore != null) {
+            counters.put("off-heap-capacity", offHeapStore.getCapacity());
+            counters.put("off-heap-used", offHeapStore.getUsed());
+            counters.put("off-heap-entries", offHeapStore.getEntries());
+            counters.put("off-heap-evictions", offHeapStore.getEvictions());
+        }
+
+        return counters.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    /**
+     * Returns the number of all and of off-heap representations of the whole document, building them if needed.
+     */
+    @GET
+    @Path("representations")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(hidden = true)
+    public String getRepresentations() throws IOException {
+        long total = 0;
+        long direct = 0;
+        for (SpecFormat format : SpecFormat.values()) {
+            for (SpecRepresentation representation : SpecRepresentationCache.getInstance().get(format).values()) {
+                total++;
+                if (representation.isDirect()) {
+                    direct++;
+                }
+            }
+        }
+
+        return "representations=" + total + "\ndirect=" + direct + "\n";
+    }
+
+    @POST
+    @Path("invalidate")
+    @Operation(hidden = true)
+    public void invalidate() {
+        SpecRepresentationCache.getInstance().invalidate();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.heap;
+
+import com.kumuluz.ee.openapi.tests.apps.synthetic.SyntheticApiModelReader;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Heap budget of the extension for the synthetic API generated by {@link SyntheticApiModelReader}, deployed with the
+ * default configuration. The budget covers the document and its cached serialized representations and consists of a
+ * fixed part and a part proportional to the number of operations.
+ *
+ * @since 2.0.0
+ */
+public class HeapBudget {
+
+    public static final long FIXED_BUDGET = 2 * 1024 * 1024;
+    // document model and its cached serialized and compressed representations in all formats
+    public static final long OPERATION_BUDGET = 5 * 1024;
+
+    private HeapBudget() {
+    }
+
+    /**
+     * @param operations number of operations of the synthetic API
+     * @return deployment generating the synthetic API
+     */
+    public static WebArchive createDeployment(int operations) {
+        String config = "mp:\n" +
+                "  openapi:\n" +
+                "    model:\n" +
+                "      reader: " + SyntheticApiModelReader.class.getName() + "\n" +
+                "synthetic-api:\n" +
+                "  operations: " + operations + "\n";
+
+        return ShrinkWrap.create(WebArchive.class)
+                .addClasses(HeapApplication.class, HeapResource.class, SyntheticApiModelReader.class)
+                .addAsResource(new StringAsset(config), "config.yml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    /**
+     * Checks that the intermediate artifacts of the generation have been released and that the heap retained by the
+     * document and its cached representations is within the budget.
+     *
+     * @param operations number of operations of the deployed synthetic API
+     */
+    public static void assertWithinBudget(int operations) {
+        // representations in all formats are built on startup, requests must not retain anything else
+        for (String format : Arrays.asList("application/json", "application/yaml", "application/cbor")) {
+            for (String encoding : Arrays.asList("identity", "gzip", "deflate")) {
+                given()
+                        .noFilters()
+                        .header("Accept", format)
+                        .header("Accept-Encoding", encoding)
+                .when()
+                        .get("/openapi")
+                .then()
+                        .statusCode(200);
+            }
+        }
+
+        String body = given()
+                .noFilters()
+        .when()
+                .get("/api/heap")
+        .then()
+                .statusCode(200)
+                .extract().body().asString();
+
+        Map<String, String> values = Arrays.stream(body.split("\n"))
+                .map(line -> line.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0], pair -> (pair.length > 1) ? pair[1] : ""));
+
+        assertEquals(values.get("retained-artifacts"), "", "Intermediate artifacts retained after startup");
+
+        long documentHeap = Long.parseLong(values.get("document-heap"));
+        long budget = FIXED_BUDGET + operations * OPERATION_BUDGET;
+        assertTrue(documentHeap <= budget, "Document of " + operations + " operations and its cached " +
+                "representations retain " + documentHeap + " bytes, budget is " + budget + " bytes");
+    }
+}
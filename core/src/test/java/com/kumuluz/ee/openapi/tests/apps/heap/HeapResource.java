@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.heap;
+
+import com.kumuluz.ee.openapi.mp.cache.SpecRepresentationCache;
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
+import io.smallrye.openapi.api.OpenApiDocument;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Measures the heap retained by the extension after startup. The intermediate artifacts of the generation must already
+ * be released, the heap retained by the generated document and its cached representations is measured by releasing
+ * both and comparing the used heap before and after. The document is not available afterwards, so the measurement can
+ * only be done once.
+ *
+ * @since 2.0.0
+ */
+@Path("heap")
+public class HeapResource {
+
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    public synchronized String measure() throws InterruptedException {
+        long withDocument = usedHeapAfterGc();
+        String retainedArtifacts = String.join(",", StartupReport.getInstance().getRetainedArtifacts());
+
+        OpenApiDocument.INSTANCE.reset();
+        SpecRepresentationCache.getInstance().clear();
+        long withoutDocument = usedHeapAfterGc();
+
+        return "retained-artifacts=" + retainedArtifacts + "\n" +
+                "document-heap=" + Math.max(0, withDocument - withoutDocument);
+    }
+
+    static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+
+        // lowest value of several collections, allocations of other threads make single readings noisy
+        for (int i = 0; i < 5; i++) {
+            memory.gc();
+            Thread.sleep(50);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+
+        return used;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.heap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.kumuluz.ee.openapi.mp.SpecFormat;
+import com.kumuluz.ee.openapi.mp.util.SerializationUtil;
+import io.smallrye.openapi.api.OpenApiDocument;
+import io.smallrye.openapi.runtime.io.Format;
+import io.smallrye.openapi.runtime.io.JsonUtil;
+import io.smallrye.openapi.runtime.io.OpenApiSerializer;
+import io.smallrye.openapi.runtime.io.definition.DefinitionWriter;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measures the heap used while the document is streamed from its model. The used heap is sampled when half of the
+ * document has been written and compared to the used heap before writing started. The streamed output is compared
+ * byte by byte to the document serialized through its whole tree, as by SmallRye.
+ *
+ * @since 2.0.0
+ */
+@Path("heap/streaming")
+public class StreamingHeapResource {
+
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    public synchronized String measure(@QueryParam("format") SpecFormat format) throws IOException {
+        OpenAPI model = OpenApiDocument.INSTANCE.get();
+        byte[] expected = serializeTree(model, format);
+
+        SamplingOutputStream outputStream = new SamplingOutputStream(expected);
+        outputStream.baseline = usedHeapAfterGc();
+        SerializationUtil.write(model, format, outputStream);
+
+        return "document-size=" + expected.length + "\n" +
+                "written=" + outputStream.position + "\n" +
+                "matches=" + (outputStream.matches && outputStream.position == expected.length) + "\n" +
+                "live-heap=" + Math.max(0, outputStream.sample - outputStream.baseline);
+    }
+
+    /**
+     * Serializes the document through the tree of the whole document, as SmallRye does.
+     */
+    private static byte[] serializeTree(OpenAPI model, SpecFormat format) throws IOException {
+        switch (format) {
+            case YAML:
+                return (OpenApiSerializer.serialize(model, Format.YAML) + System.lineSeparator())
+                        .getBytes(StandardCharsets.UTF_8);
+            case JSON:
+                return (OpenApiSerializer.serialize(model, Format.JSON) + System.lineSeparator())
+                        .getBytes(StandardCharsets.UTF_8);
+            default:
+                ObjectNode tree = JsonUtil.objectNode();
+                DefinitionWriter.writeOpenAPI(tree, model);
+                ObjectMapper mapper = (format == SpecFormat.CBOR) ? new ObjectMapper(new CBORFactory()) :
+                        new ObjectMapper();
+                return mapper.writeValueAsBytes(tree);
+        }
+    }
+
+    private static long usedHeapAfterGc() throws IOException {
+        try {
+            return HeapResource.usedHeapAfterGc();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Compares the written bytes to the expected output without keeping them and samples the used heap once half of
+     * the expected output has been written.
+     */
+    private static final class SamplingOutputStream extends OutputStream {
+
+        private final byte[] expected;
+
+        private long baseline;
+        private long sample;
+        private int position;
+        private boolean matches = true;
+
+        SamplingOutputStream(byte[] expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position >= expected.length || expected[position] != (byte) b) {
+                matches = false;
+            }
+            position++;
+
+            if (position == expected.length / 2) {
+                sample = usedHeapAfterGc();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
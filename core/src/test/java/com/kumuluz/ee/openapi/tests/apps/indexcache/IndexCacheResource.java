@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.indexcache;
+
+import com.kumuluz.ee.openapi.mp.OpenApiMpExtension;
+import io.smallrye.openapi.api.OpenApiConfig;
+import io.smallrye.openapi.api.OpenApiConfigImpl;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.jboss.jandex.IndexView;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.lang.reflect.Method;
+
+/**
+ * Repeats the annotation index lookup done by the extension on startup, as it would be done after a restart of the
+ * application with an unchanged classpath. Returns the number of classes in the index found by the lookup.
+ *
+ * @since 2.0.0
+ */
+@Path("index-cache")
+public class IndexCacheResource {
+
+    @POST
+    @Path("restart")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(hidden = true)
+    public String restart() throws ReflectiveOperationException {
+        Method getIndex = OpenApiMpExtension.class.getDeclaredMethod("getIndex", OpenApiConfig.class);
+        getIndex.setAccessible(true);
+        IndexView index = (IndexView) getIndex.invoke(new OpenApiMpExtension(),
+                new OpenApiConfigImpl(ConfigProvider.getConfig()));
+
+        return Integer.toString(index.getKnownClasses().size());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.indexing;
+
+import com.kumuluz.ee.openapi.mp.index.ParallelIndexer;
+import com.kumuluz.ee.openapi.mp.index.TargetedScan;
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import io.smallrye.openapi.api.OpenApiConfigImpl;
+import io.smallrye.openapi.runtime.OpenApiProcessor;
+import io.smallrye.openapi.runtime.io.CurrentScannerInfo;
+import io.smallrye.openapi.runtime.scanner.SchemaRegistry;
+import io.smallrye.openapi.runtime.scanner.processor.JavaSecurityProcessor;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.jboss.jandex.CompositeIndex;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexView;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes the classpath the same way as the extension does on startup and generates the model from annotations of the
+ * index. Returns the number of scanned and indexed classes, the number of partial indexes, the indexed classes with
+ * the requested name prefix and the paths and schemas of the model together with the counts recorded on startup, one
+ * {@code name=value} pair per line. Implemented as a servlet, so that it does not contribute to the document.
+ *
+ * @since 2.0.0
+ */
+@WebServlet("/indexing")
+public class IndexingServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        int parallelism = Integer.parseInt(getParameter(req, "parallelism", "1"));
+        boolean targeted = Boolean.parseBoolean(getParameter(req, "targeted", "false"));
+        boolean jars = Boolean.parseBoolean(getParameter(req, "jars", "true"));
+        String classPrefix = req.getParameter("classes");
+
+        ClassGraph classGraph = new ClassGraph().enableClassInfo()
+                .rejectPackages("org.glassfish.jersey.server.wadl")
+                .rejectClasses(ResourceConfig.class.getName());
+        if (targeted) {
+            TargetedScan.configure(classGraph);
+        }
+        if (!jars) {
+            classGraph.disableJarScanning();
+        }
+
+        StringBuilder report = new StringBuilder();
+
+        try (ScanResult scanResult = classGraph.scan()) {
+            List<ClassInfo> classes = scanResult.getAllClasses();
+            int scanned = classes.size();
+            if (targeted) {
+                classes = TargetedScan.select(scanResult);
+            }
+
+            List<Index> indexes = ParallelIndexer.index(classes, parallelism);
+            IndexView index = CompositeIndex.create(new ArrayList<>(indexes));
+
+            OpenAPI model = OpenApiProcessor.modelFromAnnotations(new OpenApiConfigImpl(ConfigProvider.getConfig()),
+                    index);
+
+            report.append("classes-scanned=").append(scanned).append('\n')
+                    .append("classes-indexed=").append(index.getKnownClasses().size()).append('\n')
+                    .append("indexes=").append(indexes.size()).append('\n')
+                    .append("paths=").append(sorted(model.getPaths() == null ? null :
+                            model.getPaths().getPathItems())).append('\n')
+                    .append("schemas=").append(sorted(model.getComponents() == null ? null :
+                            model.getComponents().getSchemas())).append('\n');
+            if (classPrefix != null) {
+                report.append("classes=").append(sorted(index.getKnownClasses().stream()
+                        .map(c -> c.name().toString())
+                        .filter(name -> name.startsWith(classPrefix) && !name.contains("$"))
+                        .collect(Collectors.toList()))).append('\n');
+            }
+        } finally {
+            SchemaRegistry.remove();
+            CurrentScannerInfo.remove();
+            JavaSecurityProcessor.remove();
+        }
+
+        Map<String, Long> startupCounts = StartupReport.getInstance().getCounts();
+        report.append("startup-classes-scanned=")
+                .append(startupCounts.get(StartupReport.COUNT_CLASSES_SCANNED)).append('\n')
+                .append("startup-classes-indexed=")
+                .append(startupCounts.get(StartupReport.COUNT_CLASSES_INDEXED));
+
+        resp.setContentType("text/plain");
+        resp.getWriter().write(report.toString());
+    }
+
+    private static String getParameter(HttpServletRequest req, String name, String defaultValue) {
+        String value = req.getParameter(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static String sorted(Map<String, ?> map) {
+        return sorted(map == null ? Collections.emptyList() : map.keySet());
+    }
+
+    private static String sorted(Collection<String> values) {
+        return values.stream().sorted().collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.sharedindex;
+
+import com.kumuluz.ee.openapi.mp.spi.IndexProvider;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Shares the index serialized in the {@code META-INF/shared-index.idx} resource, standing in for an index built by
+ * another component during startup.
+ *
+ * @since 2.0.0
+ */
+public class SerializedIndexProvider implements IndexProvider {
+
+    public static final String RESOURCE = "META-INF/shared-index.idx";
+
+    @Override
+    public IndexView getIndex() {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (is == null) {
+                return null;
+            }
+
+            return new IndexReader(is).read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
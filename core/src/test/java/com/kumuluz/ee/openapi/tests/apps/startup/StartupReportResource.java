@@ -0,0 +1,50 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.startup;
+
+import com.kumuluz.ee.openapi.mp.startup.StartupReport;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Returns the recorded phases and counts, one {@code name=value} pair per line. Durations are in nanoseconds.
+ *
+ * @since 2.0.0
+ */
+@Path("startup-report")
+public class StartupReportResource {
+
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    public String getReport() {
+        StartupReport report = StartupReport.getInstance();
+
+        return Stream.concat(
+                report.getPhases().entrySet().stream().map(e -> e.getKey() + "=" + e.getValue().toNanos()),
+                report.getCounts().entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()))
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.tests.apps.synthetic;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.openapi.OASFactory;
+import org.eclipse.microprofile.openapi.OASModelReader;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+
+/**
+ * Generates an API with the number of operations set by the {@code synthetic-api.operations} configuration key. Every
+ * operation has a path parameter, a query parameter and a response referencing one of the component schemas, one
+ * schema with five properties is generated for every four operations.
+ *
+ * @since 2.0.0
+ */
+public class SyntheticApiModelReader implements OASModelReader {
+
+    public static final String OPERATIONS_KEY = "synthetic-api.operations";
+
+    @Override
+    public OpenAPI buildModel() {
+        int operations = ConfigProvider.getConfig().getOptionalValue(OPERATIONS_KEY, Integer.class).orElse(100);
+        int schemas = Math.max(1, operations / 4);
+
+        Components components = OASFactory.createComponents();
+        for (int i = 0; i < schemas; i++) {
+            Schema schema = OASFactory.createSchema()
+                    .type(Schema.SchemaType.OBJECT)
+                    .description("Synthetic model " + i);
+            for (int p = 0; p < 5; p++) {
+                schema.addProperty("property" + p, OASFactory.createSchema()
+                        .type(p % 2 == 0 ? Schema.SchemaType.STRING : Schema.SchemaType.INTEGER)
+                        .description("Property " + p + " of model " + i));
+            }
+            components.addSchema("Model" + i, schema);
+        }
+
+        Paths paths = OASFactory.createPaths();
+        for (int i = 0; i < operations; i++) {
+            paths.addPathItem("/resources" + i + "/{id}", OASFactory.createPathItem()
+                    .GET(OASFactory.createOperation()
+                            .operationId("getResource" + i)
+                            .summary("Returns resource " + i)
+                            .addParameter(OASFactory.createParameter()
+                                    .name("id")
+                                    .in(Parameter.In.PATH)
+                                    .required(true)
+                                    .schema(OASFactory.createSchema().type(Schema.SchemaType.STRING)))
+                            .addParameter(OASFactory.createParameter()
+                                    .name("fields")
+                                    .in(Parameter.In.QUERY)
+                                    .schema(OASFactory.createSchema().type(Schema.SchemaType.STRING)))
+                            .responses(OASFactory.createAPIResponses()
+                                    .addAPIResponse("200", OASFactory.createAPIResponse()
+                                            .description("Resource " + i)
+                                            .content(OASFactory.createContent()
+                                                    .addMediaType("application/json", OASFactory.createMediaType()
+                                                            .schema(OASFactory.createSchema()
+                                                                    .ref("Model" + (i % schemas)))))))));
+        }
+
+        return OASFactory.createOpenAPI()
+                .openapi("3.0.3")
+                .info(OASFactory.createInfo().title("Synthetic API").version("1.0.0"))
+                .paths(paths)
+                .components(components);
+    }
+}
@@ -21,6 +21,7 @@
 package com.kumuluz.ee.openapi.mp.mavenplugin;
 
 import com.kumuluz.ee.openapi.mp.spi.ConfigurableOASFilter;
+import com.kumuluz.ee.openapi.mp.utils.PrebuiltFingerprint;
 import io.github.classgraph.ClassGraph;
 import io.github.classgraph.ClassInfo;
 import io.github.classgraph.ClassInfoList;
@@ -49,11 +50,13 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -77,6 +80,7 @@ public class GenerateMojo extends AbstractMojo {
     private static final String WEB_INF_CLASSES_META_INF_OPENAPI_YML = "WEB-INF/classes/META-INF/openapi.yml";
     private static final String META_INF_OPENAPI_JSON = "META-INF/openapi.json";
     private static final String WEB_INF_CLASSES_META_INF_OPENAPI_JSON = "WEB-INF/classes/META-INF/openapi.json";
+    private static final String PACKAGED_SCHEMA_DIRECTORY = "META-INF/kumuluzee/openapi/generated";
 
     @Parameter(defaultValue = "false", property = "debug")
     private Boolean debug;
@@ -125,6 +129,15 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(defaultValue = "jar", property = "includeDependenciesTypes")
     private List<String> includeDependenciesTypes;
 
+    /**
+     * Also write the schema to the compiled classes (META-INF/kumuluzee/openapi/generated/), so that it is packaged with
+     * the application and served without scanning. A marker with the fingerprints of the compiled classes, static
+     * OpenAPI files, configuration files and scanned libraries is written as well, the schema is generated at startup
+     * if the fingerprints no longer match.
+     */
+    @Parameter(defaultValue = "false", property = "packageSchema")
+    private Boolean packageSchema;
+
     @Parameter(defaultValue = "${project}")
     private MavenProject mavenProject;
 
@@ -220,6 +233,9 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(property = "scanExcludeProfiles")
     private List<String> scanExcludeProfiles;
 
+    // library JARs indexed for the schema, fingerprinted in the marker of the packaged schema
+    private final Map<String, File> scannedLibraries = new TreeMap<>();
+
     @Override
     public void execute() throws MojoExecutionException {
         Thread.currentThread().setContextClassLoader(getClassLoader());
@@ -293,6 +309,7 @@ public class GenerateMojo extends AbstractMojo {
                     try {
                         Result result = JarIndexer.createJarIndex(artifact.getFile(), new Indexer(), false, false, false);
                         indexList.add(result.getIndex());
+                        scannedLibraries.put(artifact.getFile().getName(), artifact.getFile());
                     } catch (Exception e) {
                         // do nothing
                     }
@@ -306,6 +323,7 @@ public class GenerateMojo extends AbstractMojo {
                         try {
                             Result result = JarIndexer.createJarIndex(artifact.getFile(), new Indexer(), false, false, false);
                             indexList.add(result.getIndex());
+                            scannedLibraries.put(artifact.getFile().getName(), artifact.getFile());
                         } catch (Exception e) {
                             getLog().error("Can't compute index of " + artifact.getFile().getAbsolutePath() + ", skipping", e);
                         }
@@ -361,8 +379,8 @@ public class GenerateMojo extends AbstractMojo {
         Indexer indexer = new Indexer();
 
         for (ClassInfo classInfo : classInfoList) {
-            try {
-                indexer.index(Files.newInputStream(Paths.get(classesDir.toString() + "/" + classInfo.getName().replaceAll("\\.", "/") + ".class")));
+            try (InputStream is = Files.newInputStream(Paths.get(classesDir.toString(), classInfo.getName().replace('.', '/') + ".class"))) {
+                indexer.index(is);
             } catch (IOException e) {
                 if (debug) {
                     getLog().warn("Skipped scanning class: " + classInfo.getName());
@@ -387,7 +405,9 @@ public class GenerateMojo extends AbstractMojo {
                     .collect(Collectors.toList());
 
             for (Path path : classFiles) {
-                indexer.index(Files.newInputStream(path));
+                try (InputStream is = Files.newInputStream(path)) {
+                    indexer.index(is);
+                }
             }
         }
 
@@ -566,11 +586,34 @@ public class GenerateMojo extends AbstractMojo {
 
                 getLog().info("Wrote the schema files to " + outputDirectory.getAbsolutePath());
             }
+
+            if (packageSchema) {
+                Path directory = Paths.get(classesDir.toString(), PACKAGED_SCHEMA_DIRECTORY);
+                Files.createDirectories(directory);
+
+                writeSchemaFile(directory, "openapi.yaml", yaml.getBytes(StandardCharsets.UTF_8));
+                writeSchemaFile(directory, "openapi.json", json.getBytes(StandardCharsets.UTF_8));
+                PrebuiltFingerprint.write(Paths.get(directory.toString(), PrebuiltFingerprint.MARKER_FILE),
+                        PrebuiltFingerprint.compute(classesDir.toPath()), getLibraryFingerprints());
+
+                getLog().info("Packaged the schema files to " + directory.toAbsolutePath());
+            }
         } catch (IOException e) {
             throw new MojoExecutionException("Can't write the result", e);
         }
     }
 
+    private Map<String, String> getLibraryFingerprints() throws IOException {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (Map.Entry<String, File> library : scannedLibraries.entrySet()) {
+            try (JarFile jarFile = new JarFile(library.getValue())) {
+                fingerprints.put(library.getKey(), PrebuiltFingerprint.compute(jarFile, ""));
+            }
+        }
+
+        return fingerprints;
+    }
+
     private void writeSchemaFile(Path directory, String filename, byte[] contents) throws IOException {
         Path file = Paths.get(directory.toString(), filename);
         if (!Files.exists(file)) {
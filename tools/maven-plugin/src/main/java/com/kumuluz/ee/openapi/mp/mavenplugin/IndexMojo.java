@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.openapi.mp.mavenplugin;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.jandex.Indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates Jandex index of the compiled classes (META-INF/jandex.idx). The index is packaged with the application and
+ * used by KumuluzEE OpenAPI MP at startup instead of scanning the classpath.
+ *
+ * @since 2.0.0
+ */
+@Mojo(
+        name = "index",
+        defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        threadSafe = true
+)
+public class IndexMojo extends AbstractMojo {
+
+    private static final String INDEX_FILE = "META-INF/jandex.idx";
+
+    @Parameter(defaultValue = "false", property = "debug")
+    private Boolean debug;
+
+    /**
+     * Compiled classes of the project.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", property = "classesDir")
+    private File classesDir;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (!classesDir.isDirectory()) {
+            getLog().info("No compiled classes found in " + classesDir + ", skipping index generation");
+            return;
+        }
+
+        try {
+            Index index = indexClasses();
+
+            Path indexFile = Paths.get(classesDir.toString(), INDEX_FILE);
+            Files.createDirectories(indexFile.getParent());
+
+            try (OutputStream os = Files.newOutputStream(indexFile)) {
+                new IndexWriter(os).write(index);
+            }
+
+            getLog().info("Indexed " + index.getKnownClasses().size() + " classes to " + indexFile.toAbsolutePath());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not generate Jandex index", e);
+        }
+    }
+
+    private Index indexClasses() throws IOException {
+        Indexer indexer = new Indexer();
+
+        List<Path> classFiles;
+        try (Stream<Path> stream = Files.walk(classesDir.toPath())) {
+            classFiles = stream
+                    .filter(path -> path.toString().endsWith(".class"))
+                    .collect(Collectors.toList());
+        }
+
+        for (Path path : classFiles) {
+            if (debug) {
+                getLog().info("Indexing class: " + path);
+            }
+
+            try (InputStream is = Files.newInputStream(path)) {
+                indexer.index(is);
+            }
+        }
+
+        return indexer.complete();
+    }
+}
@@ -28,8 +28,10 @@ import com.kumuluz.ee.common.wrapper.KumuluzServerWrapper;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.jetty.JettyServletServer;
 import com.kumuluz.ee.openapi.mp.ui.filters.SwaggerUIFilter;
+import com.kumuluz.ee.openapi.mp.ui.servlets.UiAsyncSupportConfigurer;
 import com.kumuluz.ee.openapi.mp.ui.servlets.UiServlet;
 import io.smallrye.openapi.api.OpenApiDocument;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -98,9 +100,10 @@ public class OpenApiMpUiExtension implements Extension {
 
             // 2.
             try {
-                if (OpenApiDocument.INSTANCE.get().getServers()!=null
-                        && !OpenApiDocument.INSTANCE.get().getServers().isEmpty()) {
-                    URL url = new URL(OpenApiDocument.INSTANCE.get().getServers().get(0).getUrl());
+                // document is not set when it is served as generated at build time
+                OpenAPI openAPI = OpenApiDocument.INSTANCE.isSet() ? OpenApiDocument.INSTANCE.get() : null;
+                if (openAPI != null && openAPI.getServers() != null && !openAPI.getServers().isEmpty()) {
+                    URL url = new URL(openAPI.getServers().get(0).getUrl());
                     serverUrl = url.getProtocol() + "://" + url.getHost() + ":" + url.getPort();
                 }
             } catch (MalformedURLException e) {
@@ -160,6 +163,11 @@ public class OpenApiMpUiExtension implements Extension {
                 swaggerUiFilterParams.put("oauth2RedirectUrl", oauth2RedirectUrl + OAUTH_HTML_PAGE);
                 server.registerFilter(SwaggerUIFilter.class, uiPath + "/*", swaggerUiFilterParams);
 
+                if (UiServlet.isBulkheadEnabled()) {
+                    // queued bulkhead requests are suspended asynchronously
+                    server.registerListener(new UiAsyncSupportConfigurer());
+                }
+
             } else {
                 LOG.severe("Swagger UI not found. Try cleaning and rebuilding project.");
             }
@@ -20,12 +20,19 @@
  */
 package com.kumuluz.ee.openapi.mp.ui.servlets;
 
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.openapi.mp.bulkhead.Bulkhead;
+import com.kumuluz.ee.openapi.mp.bulkhead.BulkheadServletSupport;
 import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.util.log.Log;
 import org.eclipse.jetty.util.log.Logger;
 import org.eclipse.jetty.util.resource.Resource;
 
+import javax.servlet.ServletException;
 import javax.servlet.UnavailableException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 /**
  * Static file server for Swagger UI, modified to remove relative UI path when looking for resources.
@@ -38,11 +45,37 @@ public class UiServlet extends DefaultServlet {
     private static final Logger LOG = Log.getLogger(UiServlet.class);
 
     private String uiPath;
+    private BulkheadServletSupport bulkhead;
 
     @Override
     public void init() throws UnavailableException {
         super.init();
         uiPath = getInitParameter("uiPath");
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        if (isBulkheadEnabled()) {
+            bulkhead = new BulkheadServletSupport(Bulkhead.create("openapi-ui",
+                    configurationUtil.getInteger("kumuluzee.openapi-mp.ui.bulkhead.max-concurrent-requests")
+                            .orElse(4),
+                    configurationUtil.getInteger("kumuluzee.openapi-mp.ui.bulkhead.max-queued-requests")
+                            .orElse(8),
+                    configurationUtil.getLong("kumuluzee.openapi-mp.ui.bulkhead.queue-timeout")
+                            .orElse(1000L)),
+                    configurationUtil.getInteger("kumuluzee.openapi-mp.ui.bulkhead.retry-after").orElse(1));
+        }
+    }
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (bulkhead == null) {
+            super.service(req, resp);
+        } else {
+            bulkhead.service(req, resp, super::service);
+        }
+    }
+
+    public static boolean isBulkheadEnabled() {
+        return ConfigurationUtil.getInstance().getBoolean("kumuluzee.openapi-mp.ui.bulkhead.enabled").orElse(false);
     }
 
     @Override